@@ -23,9 +23,14 @@ public class BCBuildersConfig {
      * drill. */
     public static boolean quarryFrameMoveBoth;
 
+    /** If true then architect tables scan a whole chunk section (16x16x16) every tick, reading the chunk's block
+     * storage directly, rather than a few blocks at a time. */
+    public static boolean architectScanSections;
+
     private static Property propBptStoreExternalThreshold;
     private static Property propQuarryFrameMinHeight;
     private static Property propQuarryFrameMoveBoth;
+    private static Property propArchitectScanSections;
 
     public static void preInit() {
         EnumRestartRequirement none = EnumRestartRequirement.NONE;
@@ -43,6 +48,10 @@ public class BCBuildersConfig {
         propQuarryFrameMoveBoth.setComment("If true then the quarry frame will move with both of its axis rather than just one.");
         none.setTo(propQuarryFrameMoveBoth);
 
+        propArchitectScanSections = BCCoreConfig.config.get("experimental", "architectScanSections", false);
+        propArchitectScanSections.setComment("If true then architect tables will scan a whole chunk section every tick, rather than a few blocks at a time.");
+        none.setTo(propArchitectScanSections);
+
         reloadConfig(EnumRestartRequirement.GAME);
         BCCoreConfig.addReloadListener(BCBuildersConfig::reloadConfig);
     }
@@ -51,5 +60,6 @@ public class BCBuildersConfig {
         bptStoreExternalThreshold = propBptStoreExternalThreshold.getInt();
         quarryFrameMinHeight = propQuarryFrameMinHeight.getInt();
         quarryFrameMoveBoth = propQuarryFrameMoveBoth.getBoolean();
+        architectScanSections = propArchitectScanSections.getBoolean();
     }
 }
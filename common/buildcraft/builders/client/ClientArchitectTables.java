@@ -17,11 +17,14 @@ public class ClientArchitectTables {
     public static final int START_SCANNED_BLOCK_VALUE = 50;
     public static final Map<AxisAlignedBB, Integer> BOXES = new HashMap<>();
     public static final Map<BlockPos, Integer> SCANNED_BLOCKS = new HashMap<>();
+    public static final Map<AxisAlignedBB, Integer> SCANNED_AREAS = new HashMap<>();
 
     public static void tick() {
         BOXES.entrySet().forEach(entry -> entry.setValue(entry.getValue() - 1));
         BOXES.values().removeIf(i -> i <= 0);
         SCANNED_BLOCKS.entrySet().forEach(entry -> entry.setValue(entry.getValue() - 1));
         SCANNED_BLOCKS.values().removeIf(i -> i <= 0);
+        SCANNED_AREAS.entrySet().forEach(entry -> entry.setValue(entry.getValue() - 1));
+        SCANNED_AREAS.values().removeIf(i -> i <= 0);
     }
 }
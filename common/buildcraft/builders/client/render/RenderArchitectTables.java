@@ -48,6 +48,7 @@ public enum RenderArchitectTables implements DetachedRenderer.IDetachedRenderer
                 new Vec3d(pos).distanceTo(player.getPositionVector())
             ).reversed()
         );
+        List<AxisAlignedBB> areas = new ArrayList<>(ClientArchitectTables.SCANNED_AREAS.keySet());
         for (AxisAlignedBB bb : boxes) {
             GL11.glStencilMask(0xff);
             GL11.glClearStencil(1);
@@ -103,26 +104,14 @@ public enum RenderArchitectTables implements DetachedRenderer.IDetachedRenderer
             );
             vb.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
             for (BlockPos pos : poses) {
-                if (!bb.intersectsWith(new AxisAlignedBB(pos))) {
-                    continue;
+                AxisAlignedBB scanned = new AxisAlignedBB(pos);
+                if (bb.intersectsWith(scanned)) {
+                    renderScanned(vb, scanned, ClientArchitectTables.SCANNED_BLOCKS.get(pos));
                 }
-                for (EnumFacing face : EnumFacing.VALUES) {
-                    ModelUtil.createFace(
-                        face,
-                        new Point3f(pos.getX() + 0.5F, pos.getY() + 0.5F, pos.getZ() + 0.5F),
-                        new Point3f(0.5F, 0.5F, 0.5F),
-                        new ModelUtil.UvFaceData(0, 0, 1, 1)
-                    )
-                        .lighti(15, 15)
-                        .colouri(
-                            255,
-                            255,
-                            255,
-                            ClientArchitectTables.SCANNED_BLOCKS.get(pos)
-                                * 50
-                                / ClientArchitectTables.START_SCANNED_BLOCK_VALUE
-                        )
-                        .render(vb);
+            }
+            for (AxisAlignedBB scanned : areas) {
+                if (bb.intersectsWith(scanned)) {
+                    renderScanned(vb, scanned, ClientArchitectTables.SCANNED_AREAS.get(scanned));
                 }
             }
             Tessellator.getInstance().draw();
@@ -132,4 +121,28 @@ public enum RenderArchitectTables implements DetachedRenderer.IDetachedRenderer
             GL11.glDisable(GL11.GL_STENCIL_TEST);
         }
     }
+
+    private static void renderScanned(VertexBuffer vb, AxisAlignedBB scanned, int value) {
+        Vec3d center = scanned.getCenter();
+        for (EnumFacing face : EnumFacing.VALUES) {
+            ModelUtil.createFace(
+                face,
+                new Point3f((float) center.xCoord, (float) center.yCoord, (float) center.zCoord),
+                new Point3f(
+                    (float) (scanned.maxX - scanned.minX) / 2,
+                    (float) (scanned.maxY - scanned.minY) / 2,
+                    (float) (scanned.maxZ - scanned.minZ) / 2
+                ),
+                new ModelUtil.UvFaceData(0, 0, 1, 1)
+            )
+                .lighti(15, 15)
+                .colouri(
+                    255,
+                    255,
+                    255,
+                    value * 50 / ClientArchitectTables.START_SCANNED_BLOCK_VALUE
+                )
+                .render(vb);
+        }
+    }
 }
@@ -72,6 +72,12 @@ public class GuiElectronicLibrary extends GuiBC8<ContainerElectronicLibrary> {
             Header header = key.header;
             String text = header == null ? key.toString() : header.name;
             drawString(fontRendererObj, text, rect.x, rect.y, colour);
+            long size = getSnapshots().getFileSize(key);
+            if (size >= 0) {
+                String sizeText = LocaleUtil.localize("gui.electronicLibrary.size", (size + 1023) / 1024);
+                double sizeX = rect.x + rect.width - fontRendererObj.getStringWidth(sizeText);
+                drawString(fontRendererObj, sizeText, sizeX, rect.y, colour);
+            }
         });
         delButton.enabled = getSnapshots().getSnapshot(container.tile.selected) != null;
     }
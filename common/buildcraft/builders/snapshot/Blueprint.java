@@ -13,6 +13,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -128,35 +130,28 @@ public class Blueprint extends Snapshot {
 
     @SuppressWarnings("WeakerAccess")
     public class BuildingInfo extends Snapshot.BuildingInfo {
-        public final List<ItemStack>[] toPlaceRequiredItems;
-        public final List<FluidStack>[] toPlaceRequiredFluids;
         public final List<ISchematicBlock> rotatedPalette;
+        /** The required items and fluids of each entry in {@link #rotatedPalette}, computed the first time that they
+         * are needed. */
+        private final List<ItemStack>[] paletteRequiredItems;
+        private final List<FluidStack>[] paletteRequiredFluids;
+        private final boolean[] paletteRequiredComputed;
         public final Set<ISchematicEntity> entities;
         public final Map<ISchematicEntity, List<ItemStack>> entitiesRequiredItems;
         public final Map<ISchematicEntity, List<FluidStack>> entitiesRequiredFluids;
 
         public BuildingInfo(BlockPos basePos, Rotation rotation) {
             super(basePos, rotation);
-            // noinspection unchecked
-            toPlaceRequiredItems = (List<ItemStack>[]) new List<?>[getDataSize()];
-            // noinspection unchecked
-            toPlaceRequiredFluids = (List<FluidStack>[]) new List<?>[getDataSize()];
             rotatedPalette = ImmutableList.copyOf(
                 palette.stream()
                     .map(schematicBlock -> schematicBlock.getRotated(rotation))
                     .collect(Collectors.toList())
             );
-            for (int z = 0; z < getSnapshot().size.getZ(); z++) {
-                for (int y = 0; y < getSnapshot().size.getY(); y++) {
-                    for (int x = 0; x < getSnapshot().size.getX(); x++) {
-                        ISchematicBlock schematicBlock = rotatedPalette.get(data[posToIndex(x, y, z)]);
-                        if (!schematicBlock.isAir()) {
-                            toPlaceRequiredItems[posToIndex(x, y, z)] = schematicBlock.computeRequiredItems();
-                            toPlaceRequiredFluids[posToIndex(x, y, z)] = schematicBlock.computeRequiredFluids();
-                        }
-                    }
-                }
-            }
+            // noinspection unchecked
+            paletteRequiredItems = (List<ItemStack>[]) new List<?>[rotatedPalette.size()];
+            // noinspection unchecked
+            paletteRequiredFluids = (List<FluidStack>[]) new List<?>[rotatedPalette.size()];
+            paletteRequiredComputed = new boolean[rotatedPalette.size()];
             ImmutableSet.Builder<ISchematicEntity> entitiesBuilder = ImmutableSet.builder();
             ImmutableMap.Builder<ISchematicEntity, List<ItemStack>> entitiesRequiredItemsBuilder =
                 ImmutableMap.builder();
@@ -173,6 +168,38 @@ public class Blueprint extends Snapshot {
             entitiesRequiredFluids = entitiesRequiredFluidsBuilder.build();
         }
 
+        /**
+         * @return the items needed to place the block at the given snapshot index, or null if it is air
+         */
+        @Nullable
+        public List<ItemStack> getToPlaceRequiredItems(int index) {
+            int paletteIndex = data[index];
+            computePaletteRequired(paletteIndex);
+            return paletteRequiredItems[paletteIndex];
+        }
+
+        /**
+         * @return the fluids needed to place the block at the given snapshot index, or null if it is air
+         */
+        @Nullable
+        public List<FluidStack> getToPlaceRequiredFluids(int index) {
+            int paletteIndex = data[index];
+            computePaletteRequired(paletteIndex);
+            return paletteRequiredFluids[paletteIndex];
+        }
+
+        private void computePaletteRequired(int paletteIndex) {
+            if (paletteRequiredComputed[paletteIndex]) {
+                return;
+            }
+            ISchematicBlock schematicBlock = rotatedPalette.get(paletteIndex);
+            if (!schematicBlock.isAir()) {
+                paletteRequiredItems[paletteIndex] = schematicBlock.computeRequiredItems();
+                paletteRequiredFluids[paletteIndex] = schematicBlock.computeRequiredFluids();
+            }
+            paletteRequiredComputed[paletteIndex] = true;
+        }
+
         @Override
         public Blueprint getSnapshot() {
             return Blueprint.this;
@@ -185,8 +185,8 @@ public class BlueprintBuilder extends SnapshotBuilder<ITileForBlueprintBuilder>
     @Override
     protected boolean hasEnoughToPlaceItems(BlockPos blockPos) {
         return tryExtractRequired(
-            getBuildingInfo().toPlaceRequiredItems[posToIndex(blockPos)],
-            getBuildingInfo().toPlaceRequiredFluids[posToIndex(blockPos)],
+            getBuildingInfo().getToPlaceRequiredItems(posToIndex(blockPos)),
+            getBuildingInfo().getToPlaceRequiredFluids(posToIndex(blockPos)),
             true
         ).isPresent();
     }
@@ -194,8 +194,8 @@ public class BlueprintBuilder extends SnapshotBuilder<ITileForBlueprintBuilder>
     @Override
     protected List<ItemStack> getToPlaceItems(BlockPos blockPos) {
         return tryExtractRequired(
-            getBuildingInfo().toPlaceRequiredItems[posToIndex(blockPos)],
-            getBuildingInfo().toPlaceRequiredFluids[posToIndex(blockPos)],
+            getBuildingInfo().getToPlaceRequiredItems(posToIndex(blockPos)),
+            getBuildingInfo().getToPlaceRequiredFluids(posToIndex(blockPos)),
             false
         ).orElse(null);
     }
@@ -344,8 +344,8 @@ public class BlueprintBuilder extends SnapshotBuilder<ITileForBlueprintBuilder>
                 checkResults[posToIndex(blockPos)] != CHECK_RESULT_CORRECT
                     ?
                     getDisplayRequired(
-                        getBuildingInfo().toPlaceRequiredItems[posToIndex(blockPos)],
-                        getBuildingInfo().toPlaceRequiredFluids[posToIndex(blockPos)]
+                        getBuildingInfo().getToPlaceRequiredItems(posToIndex(blockPos)),
+                        getBuildingInfo().getToPlaceRequiredFluids(posToIndex(blockPos))
                     ).collect(Collectors.toList())
                     : Collections.emptyList();
             return true;
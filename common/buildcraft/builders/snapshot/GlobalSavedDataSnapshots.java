@@ -11,11 +11,15 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
@@ -27,28 +31,34 @@ import com.google.common.collect.ImmutableList;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.world.World;
 
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.relauncher.Side;
 
 import buildcraft.api.core.BCLog;
 
-import buildcraft.lib.misc.data.SingleCache;
 import buildcraft.lib.nbt.NbtSquisher;
 
+/** Stores every snapshot in its own file in the "snapshots-side" directory, alongside an index of the key (and so
+ * header) and file of every snapshot. The index means that listing the snapshots doesn't have to read every file,
+ * and loading a snapshot only has to read its own file. */
 public class GlobalSavedDataSnapshots {
     private static final String SNAPSHOT_FILE_EXTENSION = ".bcnbt";
+    private static final String INDEX_FILE_NAME = "index.nbt";
+    private static final int INDEX_VERSION = 1;
     private static final Map<Side, GlobalSavedDataSnapshots> INSTANCES = new EnumMap<>(Side.class);
     private final LoadingCache<Snapshot.Key, Optional<Snapshot>> snapshotsCache = CacheBuilder.newBuilder()
         .expireAfterAccess(10, TimeUnit.MINUTES)
         .build(CacheLoader.from(key -> Optional.ofNullable(readSnapshot(key)).map(Pair::getLeft)));
-    private final SingleCache<List<Snapshot.Key>> listCache = new SingleCache<>(
-        this::readList,
-        1,
-        TimeUnit.SECONDS
-    );
     private final File snapshotsFile;
+    private final File indexFile;
+    /** Every snapshot in {@link #snapshotsFile}, in the order that they were added. */
+    private final Map<Snapshot.Key, IndexEntry> index = new LinkedHashMap<>();
+    private List<Snapshot.Key> list = null;
 
     private GlobalSavedDataSnapshots(Side side) {
         snapshotsFile = new File(
@@ -62,6 +72,8 @@ public class GlobalSavedDataSnapshots {
         } else if (!snapshotsFile.isDirectory()) {
             throw new IllegalStateException("The snapshots directory was not a directory: " + snapshotsFile);
         }
+        indexFile = new File(snapshotsFile, INDEX_FILE_NAME);
+        loadIndex();
     }
 
     public static void reInit(Side side) {
@@ -79,44 +91,105 @@ public class GlobalSavedDataSnapshots {
         return get(world.isRemote ? Side.CLIENT : Side.SERVER);
     }
 
-    private Pair<Snapshot, File> readSnapshot(Snapshot.Key key) {
-        File[] files = snapshotsFile.listFiles();
-        if (files != null) {
-            for (File snapshotFile : files) {
-                if (snapshotFile.getName().startsWith(key.toString()) &&
-                    snapshotFile.getName().endsWith(SNAPSHOT_FILE_EXTENSION)) {
-                    try (FileInputStream fileInputStream = new FileInputStream(snapshotFile)) {
-                        Snapshot snapshot = Snapshot.readFromNBT(NbtSquisher.expand(fileInputStream));
-                        if (Objects.equals(snapshot.key, key)) {
-                            return Pair.of(snapshot, snapshotFile);
-                        }
-                    } catch (IOException e) {
-                        new IOException("Failed to read the snapshot " + snapshotFile, e).printStackTrace();
+    /** Reads the index, and then brings it up to date with the snapshot files that are actually in the directory (in
+     * case any were added or removed by hand, or by an older version that didn't write an index). Only files that
+     * aren't in the index are read. */
+    private synchronized void loadIndex() {
+        boolean changed = !indexFile.exists();
+        if (!changed) {
+            try (FileInputStream fileInputStream = new FileInputStream(indexFile)) {
+                NBTTagCompound nbt = NbtSquisher.expand(fileInputStream);
+                if (nbt.getInteger("version") == INDEX_VERSION) {
+                    NBTTagList entries = nbt.getTagList("entries", Constants.NBT.TAG_COMPOUND);
+                    for (int i = 0; i < entries.tagCount(); i++) {
+                        IndexEntry entry = new IndexEntry(entries.getCompoundTagAt(i));
+                        index.put(entry.key, entry);
                     }
+                } else {
+                    changed = true;
                 }
+            } catch (IOException e) {
+                BCLog.logger.warn("[builders.snapshots] Failed to read the snapshot index " + indexFile
+                    + ", rebuilding it", e);
+                index.clear();
+                changed = true;
+            }
+        }
+
+        Set<String> indexed = new HashSet<>();
+        for (Iterator<IndexEntry> iter = index.values().iterator(); iter.hasNext();) {
+            IndexEntry entry = iter.next();
+            if (new File(snapshotsFile, entry.fileName).isFile()) {
+                indexed.add(entry.fileName);
+            } else {
+                iter.remove();
+                changed = true;
             }
         }
-        return null;
-    }
 
-    private List<Snapshot.Key> readList() {
-        ImmutableList.Builder<Snapshot.Key> listBuilder = ImmutableList.builder();
         File[] files = snapshotsFile.listFiles();
         if (files != null) {
             for (File snapshotFile : files) {
-                if (snapshotFile.getName().endsWith(SNAPSHOT_FILE_EXTENSION)) {
-                    try (FileInputStream fileInputStream = new FileInputStream(snapshotFile)) {
-                        Snapshot snapshot = Snapshot.readFromNBT(NbtSquisher.expand(fileInputStream));
-                        if (snapshotFile.getName().startsWith(snapshot.key.toString())) {
-                            listBuilder.add(snapshot.key);
-                        }
-                    } catch (IOException io) {
-                        new IOException("Failed to read the snapshot " + snapshotFile, io).printStackTrace();
+                String name = snapshotFile.getName();
+                if (!name.endsWith(SNAPSHOT_FILE_EXTENSION) || indexed.contains(name)) {
+                    continue;
+                }
+                try (FileInputStream fileInputStream = new FileInputStream(snapshotFile)) {
+                    Snapshot snapshot = Snapshot.readFromNBT(NbtSquisher.expand(fileInputStream));
+                    if (name.startsWith(snapshot.key.toString())) {
+                        index.put(snapshot.key, new IndexEntry(snapshot.key, snapshotFile));
+                        changed = true;
                     }
+                } catch (IOException io) {
+                    new IOException("Failed to read the snapshot " + snapshotFile, io).printStackTrace();
                 }
             }
         }
-        return listBuilder.build();
+
+        if (changed) {
+            writeIndex();
+        }
+    }
+
+    private synchronized void writeIndex() {
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setInteger("version", INDEX_VERSION);
+        NBTTagList entries = new NBTTagList();
+        for (IndexEntry entry : index.values()) {
+            entries.appendTag(entry.serializeNBT());
+        }
+        nbt.setTag("entries", entries);
+        // Write to a temporary file first so that a crash can't leave a half written index behind
+        File tempFile = new File(snapshotsFile, INDEX_FILE_NAME + ".tmp");
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            NbtSquisher.squishVanilla(nbt, fileOutputStream);
+        } catch (IOException e) {
+            new IOException("Failed to write the snapshot index: " + tempFile, e).printStackTrace();
+            return;
+        }
+        if (indexFile.exists() && !indexFile.delete() || !tempFile.renameTo(indexFile)) {
+            new IOException("Failed to replace the snapshot index: " + indexFile).printStackTrace();
+        }
+    }
+
+    private Pair<Snapshot, File> readSnapshot(Snapshot.Key key) {
+        IndexEntry entry;
+        synchronized (this) {
+            entry = index.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        File snapshotFile = new File(snapshotsFile, entry.fileName);
+        try (FileInputStream fileInputStream = new FileInputStream(snapshotFile)) {
+            Snapshot snapshot = Snapshot.readFromNBT(NbtSquisher.expand(fileInputStream));
+            if (Objects.equals(snapshot.key, key)) {
+                return Pair.of(snapshot, snapshotFile);
+            }
+        } catch (IOException e) {
+            new IOException("Failed to read the snapshot " + snapshotFile, e).printStackTrace();
+        }
+        return null;
     }
 
     public void addSnapshot(Snapshot snapshot) {
@@ -125,24 +198,51 @@ public class GlobalSavedDataSnapshots {
             snapshot.key.toString() + SNAPSHOT_FILE_EXTENSION
         );
         if (!snapshotFile.exists()) {
-            try (FileOutputStream fileOutputStream = new FileOutputStream(snapshotFile)) {
+            // Write to a temporary file first so that a failed write can't leave a truncated snapshot behind
+            File tempFile = new File(snapshotsFile, snapshotFile.getName() + ".tmp");
+            boolean written;
+            try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
                 NbtSquisher.squishVanilla(Snapshot.writeToNBT(snapshot), fileOutputStream);
+                written = true;
             } catch (IOException e) {
-                new IOException("Failed to write the snapshot file: " + snapshotFile, e).printStackTrace();
+                new IOException("Failed to write the snapshot file: " + tempFile, e).printStackTrace();
+                written = false;
+            }
+            if (written && !tempFile.renameTo(snapshotFile)) {
+                new IOException("Failed to rename the snapshot file to " + snapshotFile).printStackTrace();
+                written = false;
+            }
+            if (!written) {
+                if (tempFile.exists() && !tempFile.delete()) {
+                    new IOException("Failed to delete the snapshot file: " + tempFile).printStackTrace();
+                }
+            } else {
+                synchronized (this) {
+                    index.put(snapshot.key, new IndexEntry(snapshot.key, snapshotFile));
+                    list = null;
+                    writeIndex();
+                }
             }
         }
         snapshotsCache.invalidate(snapshot.key);
-        listCache.clear();
     }
 
     public void removeSnapshot(Snapshot.Key key) {
-        Optional.ofNullable(readSnapshot(key)).map(Pair::getRight).ifPresent(snapshotFile -> {
+        IndexEntry entry;
+        synchronized (this) {
+            entry = index.remove(key);
+            if (entry != null) {
+                list = null;
+                writeIndex();
+            }
+        }
+        if (entry != null) {
+            File snapshotFile = new File(snapshotsFile, entry.fileName);
             if (!snapshotFile.delete()) {
                 new IOException("Failed to read the snapshot file: " + snapshotFile).printStackTrace();
             }
             snapshotsCache.invalidate(key);
-        });
-        listCache.clear();
+        }
     }
 
     @Nullable
@@ -151,7 +251,43 @@ public class GlobalSavedDataSnapshots {
         return snapshotsCache.getUnchecked(key).orElse(null);
     }
 
-    public List<Snapshot.Key> getList() {
-        return listCache.get();
+    public synchronized List<Snapshot.Key> getList() {
+        if (list == null) {
+            list = ImmutableList.copyOf(index.keySet());
+        }
+        return list;
+    }
+
+    /** @return The size of the file that the given snapshot is stored in, or -1 if it isn't stored here. */
+    public synchronized long getFileSize(Snapshot.Key key) {
+        IndexEntry entry = index.get(key);
+        return entry == null ? -1 : entry.size;
+    }
+
+    private static class IndexEntry {
+        /** The full key, including the header (owner, name and creation date). */
+        final Snapshot.Key key;
+        final String fileName;
+        final long size;
+
+        IndexEntry(Snapshot.Key key, File file) {
+            this.key = key;
+            this.fileName = file.getName();
+            this.size = file.length();
+        }
+
+        IndexEntry(NBTTagCompound nbt) {
+            key = new Snapshot.Key(nbt.getCompoundTag("key"));
+            fileName = nbt.getString("file");
+            size = nbt.getLong("size");
+        }
+
+        NBTTagCompound serializeNBT() {
+            NBTTagCompound nbt = new NBTTagCompound();
+            nbt.setTag("key", key.serializeNBT());
+            nbt.setString("file", fileName);
+            nbt.setLong("size", size);
+            return nbt;
+        }
     }
 }
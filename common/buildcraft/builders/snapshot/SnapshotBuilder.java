@@ -9,13 +9,19 @@ package buildcraft.builders.snapshot;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
 import java.util.Queue;
-import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -24,27 +30,30 @@ import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
 
+import gnu.trove.set.hash.TIntHashSet;
+
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTUtil;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.IWorldEventListener;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 
-import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.util.INBTSerializable;
-import net.minecraftforge.event.world.BlockEvent;
 
-import buildcraft.api.core.BuildCraftAPI;
 import buildcraft.api.mj.MjAPI;
 
 import buildcraft.lib.misc.BlockUtil;
+import buildcraft.lib.misc.InventoryUtil;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.misc.VecUtil;
+import buildcraft.lib.misc.data.OrderedIndexSet;
+import buildcraft.lib.misc.data.SteppedProgress;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.world.WorldEventListenerAdapter;
 
@@ -62,6 +71,8 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
     private static final byte REQUIRED_TRUE = 1;
     private static final byte REQUIRED_FALSE = 2;
     private static final int CHECKS_PER_TICK = 10;
+    /** How many ticks to wait after everything has been checked before checking {@link #hasTileEntity} again. */
+    private static final int RECHECK_DELAY = 600;
     private static final long MAX_POWER_PER_TICK = 10 * MjAPI.MJ;
 
     protected final T tile;
@@ -72,9 +83,11 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
                                       @Nonnull IBlockState oldState,
                                       @Nonnull IBlockState newState,
                                       int flags) {
-            if (tile.getBuilder() == SnapshotBuilder.this && getBuildingInfo().box.contains(pos)) {
-                if (check(pos)) {
-                    afterChecks();
+            if (tile.getBuilder() == SnapshotBuilder.this && changed != null) {
+                // Whether a block can be placed can depend on its neighbours, so they need checking too
+                markChanged(pos);
+                for (EnumFacing face : EnumFacing.VALUES) {
+                    markChanged(pos.offset(face));
                 }
             }
         }
@@ -92,10 +105,27 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
     private byte[] requiredCache;
     private int[] breakOrder;
     private int[] placeOrder;
-    private int[] checkOrder;
+    /** Every index whose check result is {@link #CHECK_RESULT_TO_BREAK}, in {@link #breakOrder}. */
+    private OrderedIndexSet toBreak;
+    /** Every index whose check result is {@link #CHECK_RESULT_TO_PLACE}, in {@link #placeOrder}. */
+    private OrderedIndexSet toPlace;
+    /** Every index that hasn't been checked since the snapshot was set or loaded, or since the last recheck. */
+    private BitSet toCheck;
+    /** Every index that has had a block update (of itself or a neighbour) since it was last checked. */
+    private BitSet changed;
+    /** Every index that had a tile entity when it was last checked. Tile entity data can change without a block
+     * update, so these are checked again every {@link #RECHECK_DELAY} ticks. */
+    private BitSet hasTileEntity;
     private int currentCheckIndex;
+    private int ticksUntilRecheck;
     public Vec3d robotPos = null;
     public Vec3d prevRobotPos = null;
+    /** The render state (from {@link #checkRenderStateChanged()}) that the client was last sent. */
+    private long[] lastSentRenderState = null;
+    /** Client only: the power of every task, by position. The server only sends the power of each task in steps, so
+     * the client extrapolates it between them. */
+    private Map<BlockPos, SteppedProgress> clientBreakProgress = new HashMap<>();
+    private Map<BlockPos, SteppedProgress> clientPlaceProgress = new HashMap<>();
     public int leftToBreak = 0;
     public int leftToPlace = 0;
 
@@ -184,33 +214,76 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
                 getBuildingInfo().box.size().getZ()
             ];
         Arrays.fill(requiredCache, REQUIRED_UNKNOWN);
-        breakOrder = getBuildingInfo().box.getBlocksInArea().stream()
-            .sorted(BlockUtil.uniqueBlockPosComparator(Comparator.comparingDouble(blockPos ->
-                Math.pow(blockPos.getX() - getBuildingInfo().box.center().getX(), 2) +
-                    Math.pow(blockPos.getZ() - getBuildingInfo().box.center().getZ(), 2) +
-                    100_000 - Math.abs(blockPos.getY() - tile.getBuilderPos().getY()) * 100_000
-            )))
-            .mapToInt(this::posToIndex)
-            .toArray();
-        placeOrder = getBuildingInfo().box.getBlocksInArea().stream()
-            .sorted(BlockUtil.uniqueBlockPosComparator(Comparator.comparingDouble(blockPos ->
-                100_000 - (Math.pow(blockPos.getX() - tile.getBuilderPos().getX(), 2) +
-                    Math.pow(blockPos.getZ() - tile.getBuilderPos().getZ(), 2)) +
-                    Math.abs(blockPos.getY() - tile.getBuilderPos().getY()) * 100_000
-            )))
-            .mapToInt(this::posToIndex)
-            .toArray();
-        checkOrder = getBuildingInfo().box.getBlocksInArea().stream()
-            .sorted(BlockUtil.uniqueBlockPosComparator(Comparator.comparingDouble(blockPos ->
-                Math.pow(blockPos.getX() - getBuildingInfo().box.center().getX(), 2) +
-                    Math.pow(blockPos.getY() - getBuildingInfo().box.center().getY(), 2) +
-                    Math.pow(blockPos.getZ() - getBuildingInfo().box.center().getZ(), 2)
-            )))
-            .mapToInt(this::posToIndex)
-            .toArray();
+        BlockPos center = getBuildingInfo().box.center();
+        BlockPos builderPos = tile.getBuilderPos();
+        // Layers furthest from the builder first (upper before lower), each from the centre outwards
+        breakOrder = computeLayeredOrder(
+            (x, z) -> square(x - center.getX()) + square(z - center.getZ()),
+            y -> -(Math.abs(y - builderPos.getY()) * 2 + (y > builderPos.getY() ? 1 : 0))
+        );
+        // Layers closest to the builder first, each from the outside (furthest from the builder) inwards
+        placeOrder = computeLayeredOrder(
+            (x, z) -> -(square(x - builderPos.getX()) + square(z - builderPos.getZ())),
+            y -> Math.abs(y - builderPos.getY())
+        );
+        toBreak = new OrderedIndexSet(breakOrder);
+        toPlace = new OrderedIndexSet(placeOrder);
+        toCheck = new BitSet(checkResults.length);
+        toCheck.set(0, checkResults.length);
+        changed = new BitSet(checkResults.length);
+        hasTileEntity = new BitSet(checkResults.length);
+        currentCheckIndex = 0;
+        ticksUntilRecheck = RECHECK_DELAY;
         tile.getWorldBC().theProfiler.endSection();
     }
 
+    /**
+     * Builds an order of every index in the box one layer at a time, without sorting (or creating a {@link BlockPos}
+     * for) every block in it. Only the columns of a single layer and the layers themselves are sorted, so this is
+     * O(x * z * log(x * z) + volume) rather than O(volume * log(volume)). Ties are broken by x then z for columns, and
+     * by y for layers.
+     *
+     * @param columnKey the (world x, world z) of a column to the key that the columns of every layer are sorted by
+     * @param layerKey the world y of a layer to the key that the layers are sorted by
+     */
+    private int[] computeLayeredOrder(IntBinaryOperator columnKey, IntUnaryOperator layerKey) {
+        BlockPos min = getBuildingInfo().box.min();
+        BlockPos size = getBuildingInfo().box.size();
+        long[] columns = new long[size.getX() * size.getZ()];
+        for (int x = 0; x < size.getX(); x++) {
+            for (int z = 0; z < size.getZ(); z++) {
+                int column = x * size.getZ() + z;
+                columns[column] = ((long) columnKey.applyAsInt(min.getX() + x, min.getZ() + z) << 32) | column;
+            }
+        }
+        Arrays.sort(columns);
+        long[] layers = new long[size.getY()];
+        for (int y = 0; y < size.getY(); y++) {
+            layers[y] = ((long) layerKey.applyAsInt(min.getY() + y) << 32) | y;
+        }
+        Arrays.sort(layers);
+        // Buildings are only ever rotated around the y axis, so moving up a layer always adds the same amount
+        int[] columnIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            int column = (int) columns[i];
+            columnIndexes[i] = posToIndex(min.add(column / size.getZ(), 0, column % size.getZ()));
+        }
+        int layerStride = size.getY() > 1 ? posToIndex(min.up()) - posToIndex(min) : 0;
+        int[] order = new int[columns.length * layers.length];
+        int i = 0;
+        for (long layer : layers) {
+            int offset = (int) layer * layerStride;
+            for (int columnIndex : columnIndexes) {
+                order[i++] = columnIndex + offset;
+            }
+        }
+        return order;
+    }
+
+    private static int square(int value) {
+        return value * value;
+    }
+
     public void resourcesChanged() {
         Arrays.fill(requiredCache, REQUIRED_UNKNOWN);
     }
@@ -228,7 +301,11 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
         requiredCache = null;
         breakOrder = null;
         placeOrder = null;
-        checkOrder = null;
+        toBreak = null;
+        toPlace = null;
+        toCheck = null;
+        changed = null;
+        hasTileEntity = null;
         currentCheckIndex = 0;
         robotPos = null;
         prevRobotPos = null;
@@ -241,6 +318,7 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
      */
     public boolean tick() {
         if (tile.getWorldBC().isRemote) {
+            extrapolateClientPower();
             prevClientBreakTasks.clear();
             prevClientBreakTasks.addAll(clientBreakTasks);
             clientBreakTasks.clear();
@@ -281,11 +359,28 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
         boolean checkResultsChanged = false;
 
         tile.getWorldBC().theProfiler.startSection("scan");
-        for (int i = 0; i < CHECKS_PER_TICK; i++) {
-            if (check(indexToPos(currentCheckIndex))) {
+        // Blocks that have had a block update (or whose neighbours have) are checked straight away. Tile entity data
+        // can change without one, so blocks with tile entities are also checked again every RECHECK_DELAY ticks.
+        // Nothing notices setBlockState without flag 2, which doesn't tell clients about the change either
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            if (check(indexToPos(i))) {
                 checkResultsChanged = true;
             }
-            currentCheckIndex = (currentCheckIndex + 1) % checkOrder.length;
+        }
+        changed.clear();
+        for (int i = 0; i < CHECKS_PER_TICK && !toCheck.isEmpty(); i++) {
+            int index = toCheck.nextSetBit(currentCheckIndex);
+            if (index < 0) {
+                index = toCheck.nextSetBit(0);
+            }
+            currentCheckIndex = index + 1;
+            if (check(indexToPos(index))) {
+                checkResultsChanged = true;
+            }
+        }
+        if (toCheck.isEmpty() && --ticksUntilRecheck <= 0) {
+            toCheck.or(hasTileEntity);
+            ticksUntilRecheck = RECHECK_DELAY;
         }
         tile.getWorldBC().theProfiler.endSection();
 
@@ -315,66 +410,71 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
         tile.getWorldBC().theProfiler.startSection("add tasks");
         tile.getWorldBC().theProfiler.startSection("break");
         if (tile.canExcavate()) {
-            Set<Integer> breakTasksIndexes = breakTasks.stream()
-                .map(breakTask -> posToIndex(breakTask.pos))
-                .collect(Collectors.toSet());
-            int[] blocks = Arrays.stream(breakOrder)
-                .filter(i -> checkResults[i] == CHECK_RESULT_TO_BREAK && !breakTasksIndexes.contains(i))
-                .toArray();
-            leftToBreak = blocks.length;
-            if (blocks.length != 0) {
+            TIntHashSet breakTasksIndexes = new TIntHashSet();
+            breakTasks.forEach(breakTask -> breakTasksIndexes.add(posToIndex(breakTask.pos)));
+            leftToBreak = toBreak.size();
+            for (int i : breakTasksIndexes.toArray()) {
+                if (toBreak.contains(i)) {
+                    leftToBreak--;
+                }
+            }
+            if (leftToBreak != 0) {
                 isDone = false;
             }
-            Arrays.stream(blocks)
-                .mapToObj(this::indexToPos)
-                .filter(blockPos -> BlockUtil.getFluidWithFlowing(tile.getWorldBC(), blockPos) == null)
-                .map(blockPos ->
-                    new BreakTask(
-                        blockPos,
-                        0
-                    )
-                )
-                .limit(MAX_QUEUE_SIZE - breakTasks.size())
-                .forEach(breakTasks::add);
+            for (PrimitiveIterator.OfInt iterator = toBreak.iterator();
+                 iterator.hasNext() && breakTasks.size() < MAX_QUEUE_SIZE; ) {
+                int i = iterator.nextInt();
+                if (breakTasksIndexes.contains(i)) {
+                    continue;
+                }
+                BlockPos blockPos = indexToPos(i);
+                if (BlockUtil.getFluidWithFlowing(tile.getWorldBC(), blockPos) == null) {
+                    breakTasks.add(new BreakTask(blockPos, 0));
+                }
+            }
         } else {
             leftToBreak = 0;
         }
         tile.getWorldBC().theProfiler.endSection();
         tile.getWorldBC().theProfiler.startSection("place");
         {
-            Set<Integer> placeTasksIndexes = placeTasks.stream()
-                .map(placeTask -> posToIndex(placeTask.pos))
-                .collect(Collectors.toSet());
-            int[] blocks = Arrays.stream(placeOrder)
-                .filter(i -> checkResults[i] == CHECK_RESULT_TO_PLACE && !placeTasksIndexes.contains(i))
-                .toArray();
-            leftToPlace = blocks.length;
+            TIntHashSet placeTasksIndexes = new TIntHashSet();
+            placeTasks.forEach(placeTask -> placeTasksIndexes.add(posToIndex(placeTask.pos)));
+            leftToPlace = toPlace.size();
+            for (int i : placeTasksIndexes.toArray()) {
+                if (toPlace.contains(i)) {
+                    leftToPlace--;
+                }
+            }
             if (!tile.canExcavate() || breakTasks.isEmpty()) {
-                if (blocks.length != 0) {
+                if (leftToPlace != 0) {
                     isDone = false;
                 }
-                Arrays.stream(blocks)
-                    .filter(i -> {
-                        if (requiredCache[i] != REQUIRED_UNKNOWN) {
-                            return requiredCache[i] == REQUIRED_TRUE;
-                        }
-                        boolean has = hasEnoughToPlaceItems(indexToPos(i));
-                        requiredCache[i] = has ? REQUIRED_TRUE : REQUIRED_FALSE;
-                        return has;
-                    })
-                    .mapToObj(this::indexToPos)
-                    .filter(this::isReadyToPlace)
-                    .limit(MAX_QUEUE_SIZE - placeTasks.size())
-                    .filter(this::canPlace)
-                    .map(blockPos ->
-                        new PlaceTask(
-                            blockPos,
-                            getToPlaceItems(blockPos),
-                            0
-                        )
-                    )
-                    .filter(placeTask -> placeTask.items != null)
-                    .forEach(placeTasks::add);
+                int limit = MAX_QUEUE_SIZE - placeTasks.size();
+                for (PrimitiveIterator.OfInt iterator = toPlace.iterator(); iterator.hasNext() && limit > 0; ) {
+                    int i = iterator.nextInt();
+                    if (placeTasksIndexes.contains(i)) {
+                        continue;
+                    }
+                    if (requiredCache[i] == REQUIRED_UNKNOWN) {
+                        requiredCache[i] = hasEnoughToPlaceItems(indexToPos(i)) ? REQUIRED_TRUE : REQUIRED_FALSE;
+                    }
+                    if (requiredCache[i] != REQUIRED_TRUE) {
+                        continue;
+                    }
+                    BlockPos blockPos = indexToPos(i);
+                    if (!isReadyToPlace(blockPos)) {
+                        continue;
+                    }
+                    limit--;
+                    if (!canPlace(blockPos)) {
+                        continue;
+                    }
+                    PlaceTask placeTask = new PlaceTask(blockPos, getToPlaceItems(blockPos), 0);
+                    if (placeTask.items != null) {
+                        placeTasks.add(placeTask);
+                    }
+                }
             }
         }
         tile.getWorldBC().theProfiler.endSection();
@@ -400,26 +500,24 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
                     )
                 );
                 if (breakTask.power >= target) {
-                    BlockEvent.BreakEvent breakEvent = new BlockEvent.BreakEvent(
-                        tile.getWorldBC(),
+                    tile.getWorldBC().theProfiler.startSection("work");
+                    // The block's own drops are discarded, but anything that it spills (such as the contents of a
+                    // chest) is given to the builder's neighbours rather than being dropped in the world
+                    boolean broken = BlockUtil.breakBlock(
+                        (WorldServer) tile.getWorldBC(),
                         breakTask.pos,
-                        tile.getWorldBC().getBlockState(breakTask.pos),
-                        BuildCraftAPI.fakePlayerProvider.getFakePlayer(
-                            (WorldServer) tile.getWorldBC(),
-                            tile.getOwner(),
-                            tile.getBuilderPos()
-                        )
+                        tile.getBuilderPos(),
+                        tile.getOwner(),
+                        false,
+                        stack -> InventoryUtil.addToBestAcceptor(tile.getWorldBC(), tile.getBuilderPos(), null, stack)
                     );
-                    MinecraftForge.EVENT_BUS.post(breakEvent);
-                    if (!breakEvent.isCanceled()) {
-                        tile.getWorldBC().theProfiler.startSection("work");
+                    tile.getWorldBC().theProfiler.endSection();
+                    if (broken) {
                         tile.getWorldBC().sendBlockBreakProgress(
                             breakTask.pos.hashCode(),
                             breakTask.pos,
                             -1
                         );
-                        tile.getWorldBC().destroyBlock(breakTask.pos, false);
-                        tile.getWorldBC().theProfiler.endSection();
                     } else {
                         cancelBreakTask(breakTask);
                     }
@@ -486,33 +584,129 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
         return getBuildingInfo().toWorld(getBuildingInfo().getSnapshot().indexToPos(i));
     }
 
+    private void markChanged(BlockPos pos) {
+        if (getBuildingInfo().box.contains(pos)) {
+            changed.set(posToIndex(pos));
+        }
+    }
+
     /**
      * @return true if changed, false otherwise
      */
     protected boolean check(BlockPos blockPos) {
         int i = posToIndex(blockPos);
         byte prev = checkResults[i];
+        byte result;
         if (isAir(blockPos)) {
             if (tile.getWorldBC().isAirBlock(blockPos)) {
-                checkResults[i] = CHECK_RESULT_CORRECT;
+                result = CHECK_RESULT_CORRECT;
             } else {
-                checkResults[i] = CHECK_RESULT_TO_BREAK;
+                result = CHECK_RESULT_TO_BREAK;
             }
         } else {
             if (isBlockCorrect(blockPos)) {
-                checkResults[i] = CHECK_RESULT_CORRECT;
+                result = CHECK_RESULT_CORRECT;
             } else if (canPlace(blockPos)) {
-                checkResults[i] = CHECK_RESULT_TO_PLACE;
+                result = CHECK_RESULT_TO_PLACE;
             } else {
-                checkResults[i] = CHECK_RESULT_TO_BREAK;
+                result = CHECK_RESULT_TO_BREAK;
             }
         }
-        return prev != checkResults[i];
+        IBlockState state = tile.getWorldBC().getBlockState(blockPos);
+        hasTileEntity.set(i, state.getBlock().hasTileEntity(state));
+        toCheck.clear(i);
+        changed.clear(i);
+        if (prev == result) {
+            return false;
+        }
+        setCheckResult(i, result);
+        return true;
+    }
+
+    /**
+     * Sets the check result of the given index, keeping {@link #toBreak} and {@link #toPlace} up to date
+     */
+    private void setCheckResult(int i, byte result) {
+        checkResults[i] = result;
+        if (result == CHECK_RESULT_TO_BREAK) {
+            toBreak.add(i);
+        } else {
+            toBreak.remove(i);
+        }
+        if (result == CHECK_RESULT_TO_PLACE) {
+            toPlace.add(i);
+        } else {
+            toPlace.remove(i);
+        }
     }
 
     protected void afterChecks() {
     }
 
+    /** Replaces every task with one that has its power extrapolated, so that the tasks from the previous tick keep
+     * their own power for interpolating between them. */
+    private void extrapolateClientPower() {
+        for (int i = breakTasks.size(); i > 0; i--) {
+            BreakTask breakTask = breakTasks.poll();
+            SteppedProgress progress = clientBreakProgress.get(breakTask.pos);
+            breakTasks.add(
+                progress == null ? breakTask : new BreakTask(breakTask.pos, progress.tick(breakTask.getTarget()))
+            );
+        }
+        for (int i = placeTasks.size(); i > 0; i--) {
+            PlaceTask placeTask = placeTasks.poll();
+            SteppedProgress progress = clientPlaceProgress.get(placeTask.pos);
+            placeTasks.add(
+                progress == null
+                    ? placeTask
+                    : new PlaceTask(placeTask.pos, placeTask.items, progress.tick(placeTask.getTarget()))
+            );
+        }
+    }
+
+    private static <T> Map<BlockPos, SteppedProgress> receiveClientPower(Map<BlockPos, SteppedProgress> old,
+                                                                         Collection<T> tasks,
+                                                                         Function<T, BlockPos> posGetter,
+                                                                         ToLongFunction<T> powerGetter) {
+        Map<BlockPos, SteppedProgress> progresses = new HashMap<>();
+        for (T task : tasks) {
+            BlockPos pos = posGetter.apply(task);
+            SteppedProgress progress = old.get(pos);
+            if (progress == null) {
+                progress = new SteppedProgress();
+            }
+            progress.receive(powerGetter.applyAsLong(task));
+            progresses.put(pos, progress);
+        }
+        return progresses;
+    }
+
+    /**
+     * @return true if anything that the client renders has changed since the last time that this returned true. The
+     * power of each task is only compared in steps, as the client extrapolates between them.
+     */
+    public boolean checkRenderStateChanged() {
+        long[] state = new long[4 + (breakTasks.size() + placeTasks.size()) * 2];
+        int i = 0;
+        state[i++] = breakTasks.size();
+        for (BreakTask breakTask : breakTasks) {
+            state[i++] = breakTask.pos.toLong();
+            state[i++] = SteppedProgress.getStep(breakTask.power, breakTask.getTarget());
+        }
+        state[i++] = placeTasks.size();
+        for (PlaceTask placeTask : placeTasks) {
+            state[i++] = placeTask.pos.toLong();
+            state[i++] = SteppedProgress.getStep(placeTask.power, placeTask.getTarget());
+        }
+        state[i++] = leftToBreak;
+        state[i] = leftToPlace;
+        if (Arrays.equals(state, lastSentRenderState)) {
+            return false;
+        }
+        lastSentRenderState = state;
+        return true;
+    }
+
     public void writeToByteBuf(PacketBufferBC buffer) {
         buffer.writeInt(breakTasks.size());
         breakTasks.forEach(breakTask -> breakTask.writePayload(buffer));
@@ -529,6 +723,18 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
         IntStream.range(0, buffer.readInt()).mapToObj(i -> new PlaceTask(buffer)).forEach(placeTasks::add);
         leftToBreak = buffer.readInt();
         leftToPlace = buffer.readInt();
+        clientBreakProgress = receiveClientPower(
+            clientBreakProgress,
+            breakTasks,
+            breakTask -> breakTask.pos,
+            breakTask -> breakTask.power
+        );
+        clientPlaceProgress = receiveClientPower(
+            clientPlaceProgress,
+            placeTasks,
+            placeTask -> placeTask.pos,
+            placeTask -> placeTask.power
+        );
     }
 
     @Override
@@ -544,11 +750,15 @@ public abstract class SnapshotBuilder<T extends ITileForSnapshotBuilder> impleme
     @Override
     public void deserializeNBT(NBTTagCompound nbt) {
         updateSnapshot();
-        checkResults = nbt.getByteArray("checkResults");
+        byte[] savedCheckResults = nbt.getByteArray("checkResults");
+        for (int i = 0; i < savedCheckResults.length && i < checkResults.length; i++) {
+            setCheckResult(i, savedCheckResults[i]);
+        }
         breakTasks.clear();
         NBTUtilBC.readCompoundList(nbt.getTag("breakTasks")).map(BreakTask::new).forEach(breakTasks::add);
         placeTasks.clear();
         NBTUtilBC.readCompoundList(nbt.getTag("placeTasks")).map(PlaceTask::new).forEach(placeTasks::add);
+        // Blocks could have changed while this wasn't loaded, so everything is still in toCheck
         currentCheckIndex = nbt.getInteger("currentCheckIndex");
     }
 
@@ -10,7 +10,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import javax.annotation.Nullable;
@@ -18,6 +20,7 @@ import javax.annotation.Nullable;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
@@ -25,6 +28,8 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
@@ -54,6 +59,7 @@ import buildcraft.lib.tile.item.ItemHandlerManager.EnumAccess;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 
 import buildcraft.builders.BCBuildersBlocks;
+import buildcraft.builders.BCBuildersConfig;
 import buildcraft.builders.BCBuildersItems;
 import buildcraft.builders.block.BlockArchitectTable;
 import buildcraft.builders.client.ClientArchitectTables;
@@ -75,6 +81,11 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
     public static final int NET_BOX = IDS.allocId("BOX");
     @SuppressWarnings("WeakerAccess")
     public static final int NET_SCAN = IDS.allocId("SCAN");
+    @SuppressWarnings("WeakerAccess")
+    public static final int NET_SCAN_AREAS = IDS.allocId("SCAN_AREAS");
+
+    /** The number of ticks between each {@link #NET_SCAN_AREAS} message when scanning whole chunk sections. */
+    private static final int SCAN_AREAS_SYNC_INTERVAL = 5;
 
     public final ItemHandlerSimple invSnapshotIn = itemManager.addInvHandler(
         "in",
@@ -95,9 +106,21 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
     public boolean markerBox = false;
     private BitSet templateScannedBlocks;
     private final List<ISchematicBlock> blueprintScannedPalette = new ArrayList<>();
+    /** The index of every schematic block in {@link #blueprintScannedPalette}. */
+    private final Map<ISchematicBlock, Integer> blueprintScannedPaletteIndexes = new HashMap<>();
+    /** The palette index of every scanned block state that doesn't have a tile entity, as the schematic for those only
+     * depends on the state. */
+    private final Map<IBlockState, Integer> blueprintScannedStateIndexes = new HashMap<>();
     private int[] blueprintScannedData;
     private final List<ISchematicEntity> blueprintScannedEntities = new ArrayList<>();
     private BoxIterator boxIterator;
+    /** True if the current scan is reading a whole chunk section at a time, from
+     * {@link BCBuildersConfig#architectScanSections} when the scan started. */
+    private boolean scanSections;
+    /** The next chunk section to scan, if scanning whole sections. */
+    private int sectionIndex;
+    /** Every area scanned since the last {@link #NET_SCAN_AREAS} message. */
+    private final List<Box> scannedAreas = new ArrayList<>();
     private boolean isValid = false;
     private boolean scanning = false;
     public String name = "<unnamed>";
@@ -170,8 +193,14 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
                 snapshotType = ItemSnapshot.EnumItemSnapshotType.getFromStack(
                     invSnapshotIn.getStackInSlot(0)
                 ).snapshotType;
-                int size = box.size().getX() * box.size().getY() * box.size().getZ();
-                size /= snapshotType.maxPerTick;
+                scanSections = BCBuildersConfig.architectScanSections;
+                int size;
+                if (scanSections) {
+                    size = getSectionCount();
+                } else {
+                    size = box.size().getX() * box.size().getY() * box.size().getZ();
+                    size /= snapshotType.maxPerTick;
+                }
                 deltaProgress.addDelta(0, size, 1);
                 deltaProgress.addDelta(size, size + 10, -1);
                 scanning = true;
@@ -181,7 +210,11 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         }
 
         if (scanning) {
-            scanMultipleBlocks();
+            if (scanSections) {
+                scanSection();
+            } else {
+                scanMultipleBlocks();
+            }
             if (!scanning) {
                 if (snapshotType == EnumSnapshotType.BLUEPRINT) {
                     scanEntities();
@@ -200,12 +233,20 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         }
     }
 
-    private void scanSingleBlock() {
+    private void startScanning() {
         BlockPos size = box.size();
+        boxIterator = new BoxIterator(box, EnumAxisOrder.XZY.getMinToMaxOrder(), true);
+        sectionIndex = 0;
+        templateScannedBlocks = new BitSet(Snapshot.getDataSize(size));
+        blueprintScannedData = new int[Snapshot.getDataSize(size)];
+        blueprintScannedPalette.clear();
+        blueprintScannedPaletteIndexes.clear();
+        blueprintScannedStateIndexes.clear();
+    }
+
+    private void scanSingleBlock() {
         if (templateScannedBlocks == null || blueprintScannedData == null) {
-            boxIterator = new BoxIterator(box, EnumAxisOrder.XZY.getMinToMaxOrder(), true);
-            templateScannedBlocks = new BitSet(Snapshot.getDataSize(size));
-            blueprintScannedData = new int[Snapshot.getDataSize(size)];
+            startScanning();
         }
 
         // Read from world
@@ -215,13 +256,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
             templateScannedBlocks.set(Snapshot.posToIndex(box.size(), schematicPos), !worldObj.isAirBlock(worldScanPos));
         }
         if (snapshotType == EnumSnapshotType.BLUEPRINT) {
-            ISchematicBlock schematicBlock = readSchematicBlock(worldScanPos);
-            int index = blueprintScannedPalette.indexOf(schematicBlock);
-            if (index == -1) {
-                index = blueprintScannedPalette.size();
-                blueprintScannedPalette.add(schematicBlock);
-            }
-            blueprintScannedData[Snapshot.posToIndex(box.size(), schematicPos)] = index;
+            blueprintScannedData[Snapshot.posToIndex(box.size(), schematicPos)] =
+                getPaletteIndex(worldScanPos, worldObj.getBlockState(worldScanPos));
         }
 
         createAndSendMessage(NET_SCAN, buffer -> MessageUtil.writeBlockPos(buffer, worldScanPos));
@@ -237,13 +273,109 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         }
     }
 
-    private ISchematicBlock readSchematicBlock(BlockPos worldScanPos) {
+    private int getSectionCount() {
+        BlockPos min = box.min();
+        BlockPos max = box.max();
+        return ((max.getX() >> 4) - (min.getX() >> 4) + 1) *
+            ((max.getY() >> 4) - (min.getY() >> 4) + 1) *
+            ((max.getZ() >> 4) - (min.getZ() >> 4) + 1);
+    }
+
+    /**
+     * Scans the part of the box inside the next chunk section, reading block states straight from the chunk's
+     * {@link ExtendedBlockStorage}
+     */
+    private void scanSection() {
+        if (templateScannedBlocks == null || blueprintScannedData == null) {
+            startScanning();
+        }
+        BlockPos size = box.size();
+        BlockPos min = box.min();
+        BlockPos max = box.max();
+        int sectionsX = (max.getX() >> 4) - (min.getX() >> 4) + 1;
+        int sectionsZ = (max.getZ() >> 4) - (min.getZ() >> 4) + 1;
+        int sectionX = (min.getX() >> 4) + sectionIndex % sectionsX;
+        int sectionZ = (min.getZ() >> 4) + sectionIndex / sectionsX % sectionsZ;
+        int sectionY = (min.getY() >> 4) + sectionIndex / (sectionsX * sectionsZ);
+
+        BlockPos areaMin = new BlockPos(
+            Math.max(min.getX(), sectionX << 4),
+            Math.max(min.getY(), sectionY << 4),
+            Math.max(min.getZ(), sectionZ << 4)
+        );
+        BlockPos areaMax = new BlockPos(
+            Math.min(max.getX(), (sectionX << 4) + 15),
+            Math.min(max.getY(), (sectionY << 4) + 15),
+            Math.min(max.getZ(), (sectionZ << 4) + 15)
+        );
+        Chunk chunk = worldObj.getChunkFromChunkCoords(sectionX, sectionZ);
+        ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+        ExtendedBlockStorage storage = sectionY >= 0 && sectionY < storageArray.length
+            ? storageArray[sectionY]
+            : Chunk.NULL_BLOCK_STORAGE;
+        boolean empty = storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty();
+        IBlockState air = Blocks.AIR.getDefaultState();
+        BlockPos.MutableBlockPos worldScanPos = new BlockPos.MutableBlockPos();
+        for (int y = areaMin.getY(); y <= areaMax.getY(); y++) {
+            for (int z = areaMin.getZ(); z <= areaMax.getZ(); z++) {
+                for (int x = areaMin.getX(); x <= areaMax.getX(); x++) {
+                    worldScanPos.setPos(x, y, z);
+                    IBlockState state = empty ? air : storage.get(x & 15, y & 15, z & 15);
+                    int index = Snapshot.posToIndex(size, x - min.getX(), y - min.getY(), z - min.getZ());
+                    if (snapshotType == EnumSnapshotType.TEMPLATE) {
+                        templateScannedBlocks.set(index, !state.getBlock().isAir(state, worldObj, worldScanPos));
+                    }
+                    if (snapshotType == EnumSnapshotType.BLUEPRINT) {
+                        blueprintScannedData[index] = getPaletteIndex(worldScanPos, state);
+                    }
+                }
+            }
+        }
+        scannedAreas.add(new Box(areaMin, areaMax));
+
+        sectionIndex++;
+        if (sectionIndex >= getSectionCount()) {
+            scanning = false;
+            boxIterator = null;
+        }
+        if (!scanning || worldObj.getTotalWorldTime() % SCAN_AREAS_SYNC_INTERVAL == 0) {
+            List<Box> areas = new ArrayList<>(scannedAreas);
+            scannedAreas.clear();
+            createAndSendMessage(NET_SCAN_AREAS, buffer -> {
+                buffer.writeInt(areas.size());
+                areas.forEach(area -> area.writeData(buffer));
+            });
+        }
+    }
+
+    private int getPaletteIndex(BlockPos worldScanPos, IBlockState state) {
+        boolean stateOnly = !state.getBlock().hasTileEntity(state);
+        if (stateOnly) {
+            Integer index = blueprintScannedStateIndexes.get(state);
+            if (index != null) {
+                return index;
+            }
+        }
+        ISchematicBlock schematicBlock = readSchematicBlock(worldScanPos.toImmutable(), state);
+        Integer index = blueprintScannedPaletteIndexes.get(schematicBlock);
+        if (index == null) {
+            index = blueprintScannedPalette.size();
+            blueprintScannedPalette.add(schematicBlock);
+            blueprintScannedPaletteIndexes.put(schematicBlock, index);
+        }
+        if (stateOnly) {
+            blueprintScannedStateIndexes.put(state, index);
+        }
+        return index;
+    }
+
+    private ISchematicBlock readSchematicBlock(BlockPos worldScanPos, IBlockState state) {
         return SchematicBlockManager.getSchematicBlock(new SchematicBlockContext(
             worldObj,
             box.min(),
             worldScanPos,
-            worldObj.getBlockState(worldScanPos),
-            worldObj.getBlockState(worldScanPos).getBlock()
+            state,
+            state.getBlock()
         ));
     }
 
@@ -302,6 +434,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         templateScannedBlocks = null;
         blueprintScannedData = null;
         blueprintScannedEntities.clear();
+        blueprintScannedPaletteIndexes.clear();
+        blueprintScannedStateIndexes.clear();
         boxIterator = null;
         sendNetworkUpdate(NET_RENDER_DATA);
     }
@@ -339,6 +473,17 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
                     ClientArchitectTables.START_SCANNED_BLOCK_VALUE
                 );
             }
+            if (id == NET_SCAN_AREAS) {
+                int count = buffer.readInt();
+                for (int i = 0; i < count; i++) {
+                    Box area = new Box();
+                    area.readData(buffer);
+                    ClientArchitectTables.SCANNED_AREAS.put(
+                        area.getBoundingBox(),
+                        ClientArchitectTables.START_SCANNED_BLOCK_VALUE
+                    );
+                }
+            }
         }
     }
 
@@ -351,6 +496,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
             nbt.setTag("iter", boxIterator.writeToNbt());
         }
         nbt.setBoolean("scanning", scanning);
+        nbt.setBoolean("scanSections", scanSections);
+        nbt.setInteger("sectionIndex", sectionIndex);
         nbt.setTag("snapshotType", NBTUtilBC.writeEnum(snapshotType));
         nbt.setBoolean("isValid", isValid);
         nbt.setString("name", name);
@@ -366,6 +513,8 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
             boxIterator = BoxIterator.readFromNbt(nbt.getCompoundTag("iter"));
         }
         scanning = nbt.getBoolean("scanning");
+        scanSections = nbt.getBoolean("scanSections");
+        sectionIndex = nbt.getInteger("sectionIndex");
         snapshotType = NBTUtilBC.readEnum(nbt.getTag("snapshotType"), EnumSnapshotType.class);
         isValid = nbt.getBoolean("isValid");
         name = nbt.getString("name");
@@ -378,6 +527,7 @@ public class TileArchitectTable extends TileBC_Neptune implements ITickable, IDe
         left.add(" - max = " + box.max());
         left.add("scanning = " + scanning);
         left.add("current = " + (boxIterator == null ? null : boxIterator.getCurrent()));
+        left.add("section = " + sectionIndex + " / " + getSectionCount());
     }
 
     // Rendering
@@ -119,6 +119,8 @@ public class TileBuilder extends TileBC_Neptune
     private Rotation rotation = null;
 
     private boolean isDone = false;
+    /** True if the path, snapshot or box has changed since {@link #NET_RENDER_DATA} was last sent. */
+    private boolean renderDataChanged = true;
 
     public TileBuilder() {
         for (int i = 1; i <= 4; i++) {
@@ -186,6 +188,7 @@ public class TileBuilder extends TileBC_Neptune
     }
 
     private void updateSnapshot(boolean canGetFacing) {
+        renderDataChanged = true;
         Optional.ofNullable(getBuilder()).ifPresent(SnapshotBuilder::cancel);
         if (snapshot != null && getCurrentBasePos() != null) {
             snapshotType = snapshot.getType();
@@ -251,6 +254,7 @@ public class TileBuilder extends TileBC_Neptune
             }
         }
         updateBasePoses();
+        renderDataChanged = true;
     }
 
     @Override
@@ -273,7 +277,14 @@ public class TileBuilder extends TileBC_Neptune
             }
         }
         worldObj.theProfiler.endStartSection("net_update");
-        sendNetworkUpdate(NET_RENDER_DATA); // FIXME
+        if (!worldObj.isRemote) {
+            builder = getBuilder();
+            boolean builderChanged = builder != null && builder.checkRenderStateChanged();
+            if (renderDataChanged || builderChanged) {
+                renderDataChanged = false;
+                sendNetworkUpdate(NET_RENDER_DATA);
+            }
+        }
         worldObj.theProfiler.endSection();
         worldObj.theProfiler.endSection();
     }
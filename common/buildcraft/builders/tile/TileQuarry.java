@@ -9,14 +9,14 @@ package buildcraft.builders.tile;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.PrimitiveIterator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -27,10 +27,9 @@ import com.google.common.collect.ImmutableList;
 
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.entity.item.EntityItem;
-import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumFacing.Axis;
@@ -43,14 +42,12 @@ import net.minecraft.world.IWorldEventListener;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 
-import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
-import buildcraft.api.core.BuildCraftAPI;
 import buildcraft.api.core.EnumPipePart;
 import buildcraft.api.core.IAreaProvider;
 import buildcraft.api.mj.MjAPI;
@@ -62,8 +59,6 @@ import buildcraft.lib.block.BlockBCBase_Neptune;
 import buildcraft.lib.chunkload.ChunkLoaderManager;
 import buildcraft.lib.chunkload.IChunkLoadingTile;
 import buildcraft.lib.inventory.AutomaticProvidingTransactor;
-import buildcraft.lib.inventory.TransactorEntityItem;
-import buildcraft.lib.inventory.filter.StackFilter;
 import buildcraft.lib.misc.BlockUtil;
 import buildcraft.lib.misc.BoundingBoxUtil;
 import buildcraft.lib.misc.CapUtil;
@@ -77,6 +72,8 @@ import buildcraft.lib.misc.data.AxisOrder;
 import buildcraft.lib.misc.data.Box;
 import buildcraft.lib.misc.data.BoxIterator;
 import buildcraft.lib.misc.data.EnumAxisOrder;
+import buildcraft.lib.misc.data.OrderedIndexSet;
+import buildcraft.lib.misc.data.SteppedProgress;
 import buildcraft.lib.mj.MjBatteryReceiver;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
@@ -84,6 +81,7 @@ import buildcraft.lib.world.WorldEventListenerAdapter;
 
 import buildcraft.builders.BCBuildersBlocks;
 import buildcraft.builders.BCBuildersEventDist;
+import buildcraft.builders.snapshot.Snapshot;
 import buildcraft.core.marker.VolumeCache;
 import buildcraft.core.marker.VolumeConnection;
 import buildcraft.core.marker.VolumeSubCache;
@@ -91,24 +89,40 @@ import buildcraft.core.tile.TileMarkerVolume;
 
 public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable, IChunkLoadingTile {
     private static final long MAX_POWER_PER_TICK = 64 * MjAPI.MJ;
+    /** The power needed to place a single frame. */
+    private static final long FRAME_POWER = 24 * MjAPI.MJ;
+    /** The most frames that a single {@link TaskAddFrame} will place. */
+    private static final int MAX_FRAME_BATCH = 16;
+    /** Used in {@link #columnObstructions} for columns that haven't been scanned yet. */
+    private static final int COLUMN_UNKNOWN = Integer.MAX_VALUE;
 
     private final MjBattery battery = new MjBattery(16000 * MjAPI.MJ);
     public final Box frameBox = new Box();
     private final Box miningBox = new Box();
     private BoxIterator boxIterator;
+    /** The y of the highest block in each column of the mining box that the drill can't move through (or one below the
+     * bottom of the box if there isn't one), indexed by {@link #getColumnIndex(BlockPos)}. Each column is only scanned
+     * the first time that it's needed, and then kept up to date by {@link #worldEventListener}. */
+    private int[] columnObstructions = null;
     public final List<BlockPos> framePoses = new ArrayList<>();
-    private int frameBoxPosesCount = 0;
-    private final LinkedList<BlockPos> toCheck = new LinkedList<>();
-    private final Set<BlockPos> firstCheckedPoses = new HashSet<>();
+    /** Every index (from {@link #getFrameIndex(BlockPos)}) of the frame box that hasn't been checked since the frame
+     * box was last set. Once these have all been checked {@link #worldEventListener} keeps the frame state up to date,
+     * so nothing needs to be checked again. */
+    private final BitSet frameUnchecked = new BitSet();
     private boolean firstChecked = false;
-    private final Set<BlockPos> frameBreakBlockPoses =
-        new TreeSet<>(Comparator.<BlockPos>comparingDouble(pos::distanceSq));
-    private final Set<BlockPos> framePlaceFramePoses = new HashSet<>();
+    /** The indexes of the frame box that have a block that needs to be broken, closest to the quarry first. */
+    private OrderedIndexSet frameBreakBlocks = null;
+    /** The indexes of the frame box that need a frame placed, in the same order as {@link #framePoses}. */
+    private OrderedIndexSet framePlaceFrames = null;
     public Task currentTask = null;
     public Vec3d drillPos;
     public Vec3d clientDrillPos;
     public Vec3d prevClientDrillPos;
     private long debugPowerRate = 0;
+    /** What the client was last sent, so that {@link #NET_RENDER_DATA} is only sent when one of these changes. */
+    private Task lastSentTask = null;
+    private int lastSentStep = -1;
+    private Vec3d lastSentDrillPos = null;
     private final IWorldEventListener worldEventListener = new WorldEventListenerAdapter() {
         @Override
         public void notifyBlockUpdate(@Nonnull World world,
@@ -120,6 +134,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
                 if (frameBox.contains(pos)) {
                     check(pos);
                 } else if (miningBox.contains(pos)) {
+                    onMiningBoxChange(pos);
                     if (boxIterator != null &&
                         (boxIterator.getCurrent() == null || pos.getY() >= boxIterator.getCurrent().getY()) &&
                         !canMoveThrough(pos) &&
@@ -269,6 +284,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         miningBox.setMin(new BlockPos(min.getX() + 1, 0, min.getZ() + 1));
         miningBox.setMax(new BlockPos(max.getX() - 1, max.getY() - 1, max.getZ() - 1));
         updatePoses();
+        sendNetworkUpdate(NET_RENDER_DATA);
     }
 
     private boolean canMine(BlockPos blockPos) {
@@ -288,33 +304,107 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
     }
 
     private boolean canMoveTo(BlockPos blockPos) {
-        for (int y = miningBox.max().getY(); y > blockPos.getY(); y--) {
-            if (!canMoveThrough(VecUtil.replaceValue(blockPos, Axis.Y, y))) {
-                return false;
+        if (!miningBox.contains(blockPos)) {
+            for (int y = miningBox.max().getY(); y > blockPos.getY(); y--) {
+                if (!canMoveThrough(VecUtil.replaceValue(blockPos, Axis.Y, y))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return getColumnObstruction(blockPos) <= blockPos.getY();
+    }
+
+    /** @return True if the given position is the highest block in its column that the drill can't move through, and
+     *         so is the next block that should be mined in that column. */
+    private boolean isNextTarget(BlockPos blockPos) {
+        return getColumnObstruction(blockPos) == blockPos.getY() && canMine(blockPos);
+    }
+
+    private int getColumnIndex(BlockPos blockPos) {
+        int sizeZ = miningBox.max().getZ() - miningBox.min().getZ() + 1;
+        return (blockPos.getX() - miningBox.min().getX()) * sizeZ + blockPos.getZ() - miningBox.min().getZ();
+    }
+
+    /** @param blockPos A position inside the mining box. Only its x and z are used. */
+    private int getColumnObstruction(BlockPos blockPos) {
+        if (columnObstructions == null) {
+            BlockPos size = miningBox.size();
+            columnObstructions = new int[size.getX() * size.getZ()];
+            Arrays.fill(columnObstructions, COLUMN_UNKNOWN);
+        }
+        int index = getColumnIndex(blockPos);
+        if (columnObstructions[index] == COLUMN_UNKNOWN) {
+            columnObstructions[index] = findObstruction(blockPos, miningBox.max().getY());
+        }
+        return columnObstructions[index];
+    }
+
+    /** @return The y of the highest block in the column that the drill can't move through, starting at fromY and
+     *         going down. */
+    private int findObstruction(BlockPos column, int fromY) {
+        BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos();
+        for (int y = fromY; y >= miningBox.min().getY(); y--) {
+            blockPos.setPos(column.getX(), y, column.getZ());
+            if (!canMoveThrough(blockPos)) {
+                return y;
             }
         }
-        return true;
+        return miningBox.min().getY() - 1;
+    }
+
+    /** Updates {@link #columnObstructions} for a block that changed in the mining box. Blocks below the highest
+     * obstruction don't matter, and blocks above it are known to be ones that can be moved through, so only the
+     * obstruction itself being removed means that the column has to be scanned again (and only below it). */
+    private void onMiningBoxChange(BlockPos blockPos) {
+        if (columnObstructions == null) {
+            return;
+        }
+        int index = getColumnIndex(blockPos);
+        int obstruction = columnObstructions[index];
+        if (obstruction == COLUMN_UNKNOWN) {
+            return;
+        }
+        if (blockPos.getY() > obstruction) {
+            if (!canMoveThrough(blockPos)) {
+                columnObstructions[index] = blockPos.getY();
+            }
+        } else if (blockPos.getY() == obstruction && canMoveThrough(blockPos)) {
+            columnObstructions[index] = findObstruction(blockPos, obstruction - 1);
+        }
+    }
+
+    private int getFrameIndex(BlockPos blockPos) {
+        return Snapshot.posToIndex(frameBox.size(), blockPos.subtract(frameBox.min()));
+    }
+
+    private BlockPos getFramePos(int index) {
+        return Snapshot.indexToPos(frameBox.size(), index).add(frameBox.min());
     }
 
     private void check(BlockPos blockPos) {
-        frameBreakBlockPoses.remove(blockPos);
-        framePlaceFramePoses.remove(blockPos);
+        if (frameBreakBlocks == null || framePlaceFrames == null) {
+            return;
+        }
+        int index = getFrameIndex(blockPos);
+        frameBreakBlocks.remove(index);
+        framePlaceFrames.remove(index);
         if (shouldBeFrame(blockPos)) {
             if (worldObj.getBlockState(blockPos).getBlock() != BCBuildersBlocks.frame) {
                 if (!worldObj.isAirBlock(blockPos)) {
-                    frameBreakBlockPoses.add(blockPos);
+                    frameBreakBlocks.add(index);
                 } else {
-                    framePlaceFramePoses.add(blockPos);
+                    framePlaceFrames.add(index);
                 }
             }
         } else {
             if (!worldObj.isAirBlock(blockPos)) {
-                frameBreakBlockPoses.add(blockPos);
+                frameBreakBlocks.add(index);
             }
         }
         if (!firstChecked) {
-            firstCheckedPoses.add(blockPos);
-            if (firstCheckedPoses.size() >= frameBoxPosesCount) {
+            frameUnchecked.clear(index);
+            if (frameUnchecked.isEmpty()) {
                 firstChecked = true;
             }
         }
@@ -365,23 +455,56 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
     }
 
     private void updatePoses() {
+        columnObstructions = null;
         framePoses.clear();
-        frameBoxPosesCount = 0;
-        toCheck.clear();
-        firstCheckedPoses.clear();
+        frameUnchecked.clear();
         firstChecked = false;
-        frameBreakBlockPoses.clear();
-        framePlaceFramePoses.clear();
+        frameBreakBlocks = null;
+        framePlaceFrames = null;
         IBlockState state = worldObj.getBlockState(pos);
         if (state.getBlock() == BCBuildersBlocks.quarry && frameBox.isInitialized()) {
-            List<BlockPos> blocksInArea = frameBox.getBlocksInArea();
-            frameBoxPosesCount = blocksInArea.size();
-            toCheck.addAll(blocksInArea);
             framePoses.addAll(getFramePoses(state));
+            BlockPos size = frameBox.size();
+            int count = size.getX() * size.getY() * size.getZ();
+            frameBreakBlocks = new OrderedIndexSet(computeFrameBreakOrder(count));
+            framePlaceFrames = new OrderedIndexSet(computeFramePlaceOrder(count));
+            frameUnchecked.set(0, count);
             ChunkLoaderManager.loadChunksForTile(this);
         }
     }
 
+    /** @return Every index of the frame box, closest to the quarry first. */
+    private int[] computeFrameBreakOrder(int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) pos.distanceSq(getFramePos(i)) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /** @return Every index of the frame box, with the frame positions first (in the order that they are placed in). */
+    private int[] computeFramePlaceOrder(int count) {
+        int[] order = new int[count];
+        BitSet added = new BitSet(count);
+        int rank = 0;
+        for (BlockPos framePos : framePoses) {
+            int index = getFrameIndex(framePos);
+            if (!added.get(index)) {
+                added.set(index);
+                order[rank++] = index;
+            }
+        }
+        for (int index = added.nextClearBit(0); index < count; index = added.nextClearBit(index + 1)) {
+            order[rank++] = index;
+        }
+        return order;
+    }
+
     @Override
     public void update() {
         if (firstTick && !worldObj.isRemote) {
@@ -390,11 +513,11 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         }
     	
         if (worldObj.isRemote) {
-            prevClientDrillPos = clientDrillPos;
-            clientDrillPos = drillPos;
             if (currentTask != null) {
                 currentTask.clientTick();
             }
+            prevClientDrillPos = clientDrillPos;
+            clientDrillPos = drillPos;
             return;
         }
 
@@ -402,11 +525,11 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             return;
         }
 
-        if (!toCheck.isEmpty()) {
-            for (int i = 0; i < (firstChecked ? 10 : 50); i++) {
-                BlockPos blockPos = toCheck.pollFirst();
-                check(blockPos);
-                toCheck.addLast(blockPos);
+        if (!firstChecked) {
+            int index = frameUnchecked.nextSetBit(0);
+            for (int i = 0; i < 50 && index >= 0; i++) {
+                check(getFramePos(index));
+                index = frameUnchecked.nextSetBit(index + 1);
             }
         }
 
@@ -420,7 +543,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             if (currentTask.addPower(power)) {
                 currentTask = null;
             }
-            sendNetworkUpdate(NET_RENDER_DATA);
+            sendRenderDataIfChanged();
             return;
         }
 
@@ -428,36 +551,41 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             return;
         }
 
-        if (!frameBreakBlockPoses.isEmpty()) {
-            BlockPos blockPos = frameBreakBlockPoses.iterator().next();
+        if (!frameBreakBlocks.isEmpty()) {
+            BlockPos blockPos = getFramePos(frameBreakBlocks.iterator().nextInt());
             if (canMine(blockPos)) {
                 drillPos = null;
                 currentTask = new TaskBreakBlock(blockPos);
-                sendNetworkUpdate(NET_RENDER_DATA);
+                sendRenderDataIfChanged();
             }
             check(blockPos);
             return;
         }
 
-        if (!framePlaceFramePoses.isEmpty()) {
-            for (BlockPos blockPos : framePoses) {
-                if (!framePlaceFramePoses.contains(blockPos)) {
-                    continue;
-                }
+        if (!framePlaceFrames.isEmpty()) {
+            // Place as many frames in one task as the stored power can pay for, rather than one per task
+            long batchSize = Math.min(MAX_FRAME_BATCH, Math.max(1, battery.getStored() / FRAME_POWER));
+            List<BlockPos> batch = new ArrayList<>();
+            PrimitiveIterator.OfInt iterator = framePlaceFrames.iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                int index = iterator.nextInt();
+                BlockPos blockPos = getFramePos(index);
                 check(blockPos);
-                if (!framePlaceFramePoses.contains(blockPos)) {
-                    continue;
+                if (framePlaceFrames.contains(index)) {
+                    batch.add(blockPos);
                 }
+            }
+            if (!batch.isEmpty()) {
                 drillPos = null;
-                currentTask = new TaskAddFrame(blockPos);
-                sendNetworkUpdate(NET_RENDER_DATA);
+                currentTask = new TaskAddFrame(batch);
+                sendRenderDataIfChanged();
                 return;
             }
         }
 
         if (boxIterator == null || drillPos == null) {
             boxIterator = createBoxIterator();
-            while (canMoveThrough(boxIterator.getCurrent()) || !canMine(boxIterator.getCurrent()) || !canMoveTo(boxIterator.getCurrent())) {
+            while (!isNextTarget(boxIterator.getCurrent())) {
                 if (boxIterator.advance() == null) {
                     break;
                 }
@@ -466,7 +594,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         }
 
         if (boxIterator != null && boxIterator.hasNext()) {
-            while (canMoveThrough(boxIterator.getCurrent()) || !canMine(boxIterator.getCurrent()) || !canMoveTo(boxIterator.getCurrent())) {
+            while (!isNextTarget(boxIterator.getCurrent())) {
                 if (boxIterator.advance() == null) {
                     break;
                 }
@@ -484,12 +612,28 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
                 }
 
                 if (found) {
-                    sendNetworkUpdate(NET_RENDER_DATA);
+                    sendRenderDataIfChanged();
                 }
             }
         }
     }
 
+    /** Sends {@link #NET_RENDER_DATA} if anything that the client renders has changed since it was last sent. The power
+     * of the current task is only sent in steps, as the client extrapolates between them, and the drill position isn't
+     * checked while it is moving as the client works it out from the {@link TaskMoveDrill} instead. */
+    private void sendRenderDataIfChanged() {
+        int step = currentTask == null ? -1 : SteppedProgress.getStep(currentTask.power, currentTask.getTarget());
+        boolean drillMoving = currentTask instanceof TaskMoveDrill;
+        if (currentTask != lastSentTask
+            || step != lastSentStep
+            || !drillMoving && !Objects.equals(drillPos, lastSentDrillPos)) {
+            lastSentTask = currentTask;
+            lastSentStep = step;
+            lastSentDrillPos = drillPos;
+            sendNetworkUpdate(NET_RENDER_DATA);
+        }
+    }
+
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound nbt) {
         super.writeToNBT(nbt);
@@ -521,6 +665,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         super.readFromNBT(nbt);
         miningBox.initialize(nbt.getCompoundTag("box"));
         frameBox.initialize(nbt.getCompoundTag("frame"));
+        columnObstructions = null;
         boxIterator = BoxIterator.readFromNbt(nbt.getCompoundTag("boxIterator"));
         battery.deserializeNBT(nbt.getCompoundTag("battery"));
         if (nbt.hasKey("currentTask")) {
@@ -676,6 +821,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         protected long power;
         public long clientPower;
         public long prevClientPower;
+        private final SteppedProgress clientProgress = new SteppedProgress();
 
         public NBTTagCompound serializeNBT() {
             NBTTagCompound nbt = new NBTTagCompound();
@@ -693,12 +839,13 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
 
         public void fromBytes(PacketBufferBC buffer) {
             power = buffer.readLong();
+            clientProgress.receive(power);
         }
 
         @SuppressWarnings("WeakerAccess")
         public void clientTick() {
             prevClientPower = clientPower;
-            clientPower = power;
+            clientPower = clientProgress.tick(getTarget());
         }
 
         public abstract long getTarget();
@@ -789,32 +936,15 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
 
         @Override
         protected boolean finish() {
-            EntityPlayer fake = BuildCraftAPI.fakePlayerProvider.getFakePlayer((WorldServer) worldObj, getOwner(), pos);
-
-            IBlockState state = worldObj.getBlockState(breakPos);
             if (!canMine(breakPos)) {
                 return true;
             }
 
-            BlockEvent.BreakEvent breakEvent = new BlockEvent.BreakEvent(worldObj, breakPos, state, fake);
-            MinecraftForge.EVENT_BUS.post(breakEvent);
-            if (!breakEvent.isCanceled()) {
-                // The drill pos will be null if we are making the frame: this is when we want to destroy the block, not
-                // drop its contents
+            // The drill pos will be null if we are making the frame: this is when we want to destroy the block, not
+            // drop its contents
+            if (BlockUtil.breakBlock((WorldServer) worldObj, breakPos, pos, getOwner(), drillPos != null,
+                stack -> InventoryUtil.addToBestAcceptor(worldObj, pos, null, stack))) {
                 worldObj.sendBlockBreakProgress(breakPos.hashCode(), breakPos, -1);
-                if (drillPos != null) {
-                    worldObj.destroyBlock(breakPos, true);
-                    for (EntityItem entity : worldObj.getEntitiesWithinAABB(EntityItem.class,
-                        new AxisAlignedBB(breakPos).expandXyz(1))) {
-                        TransactorEntityItem transactor = new TransactorEntityItem(entity);
-                        ItemStack stack;
-                        while ((stack = transactor.extract(StackFilter.ALL, 0, Integer.MAX_VALUE, false)) != null) {
-                            InventoryUtil.addToBestAcceptor(worldObj, pos, null, stack);
-                        }
-                    }
-                } else {
-                    worldObj.destroyBlock(breakPos, false);
-                }
                 return true;
             } else {
                 return false;
@@ -830,21 +960,28 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
     }
 
     public class TaskAddFrame extends Task {
+        /** The first frame in {@link #batch}. */
         public BlockPos framePos = BlockPos.ORIGIN;
+        /** Every frame that this task places. */
+        public List<BlockPos> batch = Collections.singletonList(framePos);
 
         @SuppressWarnings("WeakerAccess")
         public TaskAddFrame() {
         }
 
         @SuppressWarnings("WeakerAccess")
-        public TaskAddFrame(BlockPos framePos) {
-            this.framePos = framePos;
+        public TaskAddFrame(List<BlockPos> batch) {
+            this.framePos = batch.get(0);
+            this.batch = batch;
         }
 
         @Override
         public NBTTagCompound serializeNBT() {
             NBTTagCompound nbt = super.serializeNBT();
             nbt.setTag("framePos", NBTUtilBC.writeBlockPos(framePos));
+            NBTTagList batchTag = new NBTTagList();
+            batch.stream().map(NBTUtilBC::writeBlockPos).forEach(batchTag::appendTag);
+            nbt.setTag("batch", batchTag);
             return nbt;
         }
 
@@ -855,35 +992,57 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             if (framePos == null) {
                 // We failed to read, abort
                 currentTask = null;
+                return;
+            }
+            batch = new ArrayList<>();
+            NBTTagList batchTag = nbt.getTagList("batch", Constants.NBT.TAG_INT_ARRAY);
+            for (int i = 0; i < batchTag.tagCount(); i++) {
+                BlockPos blockPos = NBTUtilBC.readBlockPos(batchTag.get(i));
+                if (blockPos != null) {
+                    batch.add(blockPos);
+                }
+            }
+            if (batch.isEmpty()) {
+                // Saved before frames were placed in batches
+                batch.add(framePos);
             }
         }
 
         @Override
         public void toBytes(PacketBufferBC buffer) {
             super.toBytes(buffer);
-            buffer.writeBlockPos(framePos);
+            buffer.writeVarIntToBuffer(batch.size());
+            batch.forEach(buffer::writeBlockPos);
         }
 
         @Override
         public void fromBytes(PacketBufferBC buffer) {
             super.fromBytes(buffer);
-            framePos = buffer.readBlockPos();
+            int count = buffer.readVarIntFromBuffer();
+            batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(buffer.readBlockPos());
+            }
+            framePos = batch.isEmpty() ? BlockPos.ORIGIN : batch.get(0);
         }
 
         @Override
         public long getTarget() {
-            return 24 * MjAPI.MJ;
+            return FRAME_POWER * batch.size();
         }
 
         @Override
         protected boolean onReceivePower() {
-            return !worldObj.isAirBlock(framePos);
+            // Only cancelled once every frame position has been filled by something else
+            return batch.stream().noneMatch(worldObj::isAirBlock);
         }
 
         @Override
         protected boolean finish() {
-            if (worldObj.isAirBlock(framePos)) {
-                worldObj.setBlockState(framePos, BCBuildersBlocks.frame.getDefaultState());
+            for (BlockPos blockPos : batch) {
+                if (worldObj.isAirBlock(blockPos)) {
+                    worldObj.setBlockState(blockPos, BCBuildersBlocks.frame.getDefaultState());
+                }
             }
             return true;
         }
@@ -891,7 +1050,7 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
         @Override
         public boolean equals(Object o) {
             return this == o
-                || !(o == null || getClass() != o.getClass()) && framePos.equals(((TaskAddFrame) o).framePos);
+                || !(o == null || getClass() != o.getClass()) && batch.equals(((TaskAddFrame) o).batch);
 
         }
     }
@@ -948,6 +1107,15 @@ public class TileQuarry extends TileBC_Neptune implements ITickable, IDebuggable
             return (long) (from.distanceTo(to) * 20 * MjAPI.MJ);
         }
 
+        @Override
+        public void clientTick() {
+            super.clientTick();
+            if (getTarget() > 0) {
+                double progress = Math.min(1, clientPower / (double) getTarget());
+                drillPos = from.scale(1 - progress).add(to.scale(progress));
+            }
+        }
+
         @Override
         protected boolean onReceivePower() {
             // Vec3d oldDrillPos = drillPos;
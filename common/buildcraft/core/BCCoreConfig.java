@@ -59,6 +59,7 @@ public class BCCoreConfig {
     private static Property propItemLifespan;
     private static Property propMarkerMaxDistance;
     private static Property propNetworkUpdateRate;
+    private static Property propBatchTileUpdates;
 
     public static void preInit(File cfgFolder) {
         config = new Configuration(new File(cfgFolder, "main.cfg"));
@@ -150,6 +151,11 @@ public class BCCoreConfig {
             "How often, in ticks, should network update packets be sent? Increasing this might help network performance.");
         none.setTo(propNetworkUpdateRate);
 
+        propBatchTileUpdates = config.get("experimental", "batchTileUpdates", BCLibConfig.batchTileUpdates);
+        propBatchTileUpdates.setComment(
+            "Should tile updates be sent as one compressed message per chunk at the end of each tick, rather than one message per tile?");
+        none.setTo(propBatchTileUpdates);
+
         reloadConfig(game);
         addReloadListener(BCCoreConfig::reloadConfig);
 
@@ -197,6 +203,7 @@ public class BCCoreConfig {
         markerMaxDistance = propMarkerMaxDistance.getInt();
         BCLibConfig.colourBlindMode = propColourBlindMode.getBoolean();
         BCLibConfig.displayTimeGap = ConfigUtil.parseEnumForConfig(propDisplayTimeGap.getString(), TimeGap.values(), TimeGap.TICKS);
+        BCLibConfig.batchTileUpdates = propBatchTileUpdates.getBoolean();
 
         if (EnumRestartRequirement.GAME.hasBeenRestarted(restarted)) {
             worldGen = propWorldGen.getBoolean();
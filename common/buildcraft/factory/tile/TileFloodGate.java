@@ -12,15 +12,14 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Deque;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.google.common.collect.ImmutableList;
+import javax.annotation.Nonnull;
 
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTPrimitive;
 import net.minecraft.nbt.NBTTagByteArray;
@@ -30,6 +29,8 @@ import net.minecraft.util.EnumFacing.Axis;
 import net.minecraft.util.EnumFacing.AxisDirection;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 
 import net.minecraftforge.common.util.FakePlayer;
@@ -49,8 +50,10 @@ import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.FluidUtilBC;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.VecUtil;
+import buildcraft.lib.misc.data.PositionTree;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
+import buildcraft.lib.world.WorldEventListenerAdapter;
 
 import buildcraft.factory.BCFactoryBlocks;
 import buildcraft.factory.block.BlockFloodGate;
@@ -66,9 +69,24 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
     private final Tank tank = new Tank("tank", 2 * Fluid.BUCKET_VOLUME, this);
     public final Set<EnumFacing> openSides = EnumSet.copyOf(BlockFloodGate.CONNECTED_MAP.keySet());
     public final Deque<BlockPos> queue = new ArrayDeque<>();
-    private final Map<BlockPos, List<BlockPos>> paths = new HashMap<>();
+    /** Every position that {@link #buildQueue()} reached, and how it was reached. A node is blocked while fluid can't
+     * flow through it (see {@link #canFillThrough(BlockPos)}), which {@link #worldEventListener} keeps up to date. */
+    private final PositionTree paths = new PositionTree();
     private int delayIndex = 0;
     private int tick = 0;
+    private final IWorldEventListener worldEventListener = new WorldEventListenerAdapter() {
+        @Override
+        public void notifyBlockUpdate(@Nonnull World world,
+                                      @Nonnull BlockPos pos,
+                                      @Nonnull IBlockState oldState,
+                                      @Nonnull IBlockState newState,
+                                      int flags) {
+            int index = paths.indexOf(pos.toLong());
+            if (index != -1) {
+                paths.setBlocked(index, !canFillThrough(pos));
+            }
+        }
+    };
 
     public TileFloodGate() {
         caps.addCapabilityInstance(CapUtil.CAP_FLUIDS, tank, EnumPipePart.VALUES);
@@ -93,7 +111,7 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
         for (EnumFacing face : openSides) {
             BlockPos offset = pos.offset(face);
             nextPosesToCheck.add(offset);
-            paths.put(offset, ImmutableList.of(offset));
+            addPath(offset, PositionTree.NO_PARENT);
         }
         worldObj.theProfiler.endStartSection("build");
         outer: while (!nextPosesToCheck.isEmpty()) {
@@ -111,7 +129,7 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
                                 break outer;
                             }
                         }
-                        List<BlockPos> checkPath = paths.get(toCheck);
+                        int checkIndex = paths.indexOf(toCheck.toLong());
                         for (EnumFacing side : SEARCH_DIRECTIONS) {
                             BlockPos next = toCheck.offset(side);
                             if (!openSides.contains(side)) {
@@ -127,10 +145,7 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
                             if (checked.contains(next)) {
                                 continue;
                             }
-                            ImmutableList.Builder<BlockPos> pathBuilder = ImmutableList.builder();
-                            pathBuilder.addAll(checkPath);
-                            pathBuilder.add(next);
-                            paths.put(next, pathBuilder.build());
+                            addPath(next, checkIndex);
                             nextPosesToCheck.add(next);
                         }
                     }
@@ -140,6 +155,12 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
         worldObj.theProfiler.endSection();
     }
 
+    private void addPath(BlockPos toAdd, int parent) {
+        if (paths.indexOf(toAdd.toLong()) == -1) {
+            paths.setBlocked(paths.add(toAdd.toLong(), parent), !canFillThrough(toAdd));
+        }
+    }
+
     private boolean canFill(BlockPos offsetPos) {
         if (worldObj.isAirBlock(offsetPos)) {
             return true;
@@ -183,19 +204,8 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
                 FluidStack fluid = tank.drain(Fluid.BUCKET_VOLUME, false);
                 if (fluid != null && fluid.amount >= Fluid.BUCKET_VOLUME) {
                     BlockPos currentPos = queue.removeLast();
-                    List<BlockPos> path = paths.get(currentPos);
-                    boolean canFill = true;
-                    if (path != null) {
-                        for (BlockPos p : path) {
-                            if (p.equals(currentPos)) {
-                                continue;
-                            }
-                            if (!canFillThrough(currentPos)) {
-                                canFill = false;
-                                break;
-                            }
-                        }
-                    }
+                    int index = paths.indexOf(currentPos.toLong());
+                    boolean canFill = index == -1 || paths.isPathClear(index);
                     if (canFill && canFill(currentPos)) {
                         FakePlayer fakePlayer =
                             BuildCraftAPI.fakePlayerProvider.getFakePlayer((WorldServer) worldObj, getOwner(), currentPos);
@@ -220,6 +230,22 @@ public class TileFloodGate extends TileBC_Neptune implements ITickable, IDebugga
         }
     }
 
+    @Override
+    public void validate() {
+        super.validate();
+        if (!worldObj.isRemote) {
+            worldObj.addEventListener(worldEventListener);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        if (!worldObj.isRemote) {
+            worldObj.removeEventListener(worldEventListener);
+        }
+    }
+
     // NBT
 
     @Override
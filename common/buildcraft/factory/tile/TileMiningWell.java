@@ -6,16 +6,8 @@
 
 package buildcraft.factory.tile;
 
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.item.ItemStack;
 import net.minecraft.world.WorldServer;
 
-import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.world.BlockEvent;
-
-import java.util.List;
-
-import buildcraft.api.core.BuildCraftAPI;
 import buildcraft.api.core.EnumPipePart;
 import buildcraft.api.mj.IMjReceiver;
 
@@ -40,18 +32,9 @@ public class TileMiningWell extends TileMiner {
             progress += battery.extractPower(0, target - progress);
             if (progress >= target) {
                 progress = 0;
-                EntityPlayer fakePlayer = BuildCraftAPI.fakePlayerProvider.getFakePlayer((WorldServer) worldObj, getOwner(), pos);
-                BlockEvent.BreakEvent breakEvent = new BlockEvent.BreakEvent(worldObj, currentPos, worldObj.getBlockState(currentPos), fakePlayer);
-                MinecraftForge.EVENT_BUS.post(breakEvent);
-                if (!breakEvent.isCanceled()) {
-                    List<ItemStack> stacks = BlockUtil.getItemStackFromBlock((WorldServer) worldObj, currentPos, getOwner());
-                    if (stacks != null) {
-                        for (ItemStack stack : stacks) {
-                            InventoryUtil.addToBestAcceptor(worldObj, pos, null, stack);
-                        }
-                    }
+                if (BlockUtil.breakBlock((WorldServer) worldObj, currentPos, pos, getOwner(), true,
+                    stack -> InventoryUtil.addToBestAcceptor(worldObj, pos, null, stack))) {
                     worldObj.sendBlockBreakProgress(currentPos.hashCode(), currentPos, -1);
-                    worldObj.destroyBlock(currentPos, false);
                 }
                 nextPos();
                 updateLength();
@@ -9,25 +9,23 @@ package buildcraft.factory.tile;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import com.google.common.collect.ImmutableList;
-
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumFacing.Axis;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
 
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidRegistry;
@@ -45,8 +43,10 @@ import buildcraft.lib.misc.CapUtil;
 import buildcraft.lib.misc.FluidUtilBC;
 import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.misc.VecUtil;
+import buildcraft.lib.misc.data.PositionTree;
 import buildcraft.lib.mj.MjRedstoneBatteryReceiver;
 import buildcraft.lib.net.PacketBufferBC;
+import buildcraft.lib.world.WorldEventListenerAdapter;
 
 import buildcraft.core.BCCoreBlocks;
 import buildcraft.energy.BCEnergyFluids;
@@ -61,10 +61,25 @@ public class TilePump extends TileMiner {
 
     private final Tank tank = new Tank("tank", 16 * Fluid.BUCKET_VOLUME, this);
     private boolean queueBuilt = false;
-    private final Map<BlockPos, List<BlockPos>> paths = new HashMap<>();
+    /** Every position that {@link #buildQueue()} reached, and how it was reached. A node is blocked once it no longer
+     * has any fluid in it, which {@link #worldEventListener} keeps up to date. */
+    private final PositionTree paths = new PositionTree();
     private BlockPos fluidConnection;
     private final Deque<BlockPos> queue = new ArrayDeque<>();
     private boolean isInfiniteWaterSource;
+    private final IWorldEventListener worldEventListener = new WorldEventListenerAdapter() {
+        @Override
+        public void notifyBlockUpdate(@Nonnull World world,
+                                      @Nonnull BlockPos pos,
+                                      @Nonnull IBlockState oldState,
+                                      @Nonnull IBlockState newState,
+                                      int flags) {
+            int index = paths.indexOf(pos.toLong());
+            if (index != -1) {
+                paths.setBlocked(index, BlockUtil.getFluidWithFlowing(world, pos) == null);
+            }
+        }
+    };
 
     @Nullable
     private BlockPos oilSpringPos;
@@ -92,7 +107,7 @@ public class TilePump extends TileMiner {
             if (BlockUtil.getFluidWithFlowing(worldObj, posToCheck) != null) {
                 queueFluid = BlockUtil.getFluidWithFlowing(worldObj, posToCheck);
                 nextPosesToCheck.add(posToCheck);
-                paths.put(posToCheck, Collections.singletonList(posToCheck));
+                paths.add(posToCheck.toLong(), PositionTree.NO_PARENT);
                 checked.add(posToCheck);
                 if (BlockUtil.getFluid(worldObj, posToCheck) != null) {
                     queue.add(posToCheck);
@@ -123,10 +138,7 @@ public class TilePump extends TileMiner {
                     }
                     if (checked.add(offsetPos)) {
                         if (FluidUtilBC.areFluidsEqual(BlockUtil.getFluidWithFlowing(worldObj, offsetPos), queueFluid)) {
-                            ImmutableList.Builder<BlockPos> pathBuilder = new ImmutableList.Builder<>();
-                            pathBuilder.addAll(paths.get(posToCheck));
-                            pathBuilder.add(offsetPos);
-                            paths.put(offsetPos, pathBuilder.build());
+                            paths.add(offsetPos.toLong(), paths.indexOf(posToCheck.toLong()));
                             if (BlockUtil.getFluid(worldObj, offsetPos) != null) {
                                 queue.add(offsetPos);
                             }
@@ -231,14 +243,12 @@ public class TilePump extends TileMiner {
                 return;
             }
             long target = 10 * MjAPI.MJ;
-            if (currentPos != null && paths.containsKey(currentPos)) {
+            int index = currentPos == null ? -1 : paths.indexOf(currentPos.toLong());
+            if (index != -1) {
                 progress += battery.extractPower(0, target - progress);
                 if (progress >= target) {
                     FluidStack drain = BlockUtil.drainBlock(worldObj, currentPos, false);
-                    if (drain != null
-                        && paths.get(currentPos).stream()
-                            .allMatch(blockPos -> BlockUtil.getFluidWithFlowing(worldObj, blockPos) != null)
-                        && canDrain(currentPos)) {
+                    if (drain != null && paths.isPathClear(index) && canDrain(currentPos)) {
                         tank.fillInternal(drain, true);
                         progress = 0;
                         if (isInfiniteWaterSource) {
@@ -272,6 +282,22 @@ public class TilePump extends TileMiner {
         }
     }
 
+    @Override
+    public void validate() {
+        super.validate();
+        if (!worldObj.isRemote) {
+            worldObj.addEventListener(worldEventListener);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        if (!worldObj.isRemote) {
+            worldObj.removeEventListener(worldEventListener);
+        }
+    }
+
     // NBT
 
     @Override
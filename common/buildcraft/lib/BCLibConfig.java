@@ -63,6 +63,10 @@ public class BCLibConfig {
 
     public static ChunkLoaderLevel chunkLoadingLevel = ChunkLoaderLevel.SELF_TILES;
 
+    /** If true then tile updates that are sent to every player watching a chunk will be collected, and sent as one
+     * (compressed) message per chunk at the end of each tick. */
+    public static boolean batchTileUpdates = false;
+
     public static final List<Runnable> configChangeListeners = new ArrayList<>();
 
     /** Resets cached values across various BCLib classes that rely on these config options. */
@@ -9,6 +9,7 @@ import net.minecraft.client.entity.EntityPlayerSP;
 import net.minecraft.client.gui.GuiNewChat;
 import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.tileentity.TileEntity;
@@ -45,11 +46,13 @@ import buildcraft.lib.client.sprite.SpriteHolderRegistry;
 import buildcraft.lib.debug.BCAdvDebugging;
 import buildcraft.lib.debug.ClientDebuggables;
 import buildcraft.lib.marker.MarkerCache;
+import buildcraft.lib.misc.BlockUtil;
 import buildcraft.lib.misc.FakePlayerProvider;
 import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.data.ModelVariableData;
 import buildcraft.lib.net.MessageDebugRequest;
 import buildcraft.lib.net.MessageManager;
+import buildcraft.lib.net.TileUpdateBatcher;
 import buildcraft.lib.net.cache.BuildCraftObjectCaches;
 
 public enum BCLibEventDist {
@@ -62,12 +65,15 @@ public enum BCLibEventDist {
             EntityPlayerMP playerMP = (EntityPlayerMP) entity;
             // Delay sending join messages to player as it makes it work when in single-player
             MessageUtil.doDelayed(() -> MarkerCache.onPlayerJoinWorld(playerMP));
+        } else if (entity instanceof EntityItem && BlockUtil.captureDrop((EntityItem) entity)) {
+            event.setCanceled(true);
         }
     }
 
     @SubscribeEvent
     public static void onWorldUnload(WorldEvent.Unload event) {
         MarkerCache.onWorldUnload(event.getWorld());
+        TileUpdateBatcher.onWorldUnload(event.getWorld());
         if (event.getWorld() instanceof WorldServer) {
             FakePlayerProvider.INSTANCE.unloadWorld((WorldServer) event.getWorld());
         }
@@ -179,6 +185,8 @@ public enum BCLibEventDist {
     public static void serverTick(ServerTickEvent event) {
         if (event.phase == Phase.END) {
             BCAdvDebugging.INSTANCE.onServerPostTick();
+            TileUpdateBatcher.flush();
+            BuildCraftObjectCaches.onServerTick();
             MessageUtil.postTick();
         }
     }
@@ -13,6 +13,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -67,6 +68,12 @@ import buildcraft.lib.compat.CompatManager;
 import buildcraft.lib.world.SingleBlockAccess;
 
 public final class BlockUtil {
+    /** The block that item entities are currently being captured from by
+     * {@link #captureDrops(World, BlockPos, List, Runnable)}, and the list that they are captured into. The list is
+     * null if nothing is being captured. */
+    private static World capturingWorld = null;
+    private static BlockPos capturingPos = null;
+    private static List<ItemStack> capturedDrops = null;
 
     /**
      * @return A list of itemstacks that are dropped from the block, or null if the block is air
@@ -148,19 +155,84 @@ public final class BlockUtil {
     }
 
     public static boolean breakBlock(WorldServer world, BlockPos pos, List<ItemStack> drops, BlockPos ownerPos, GameProfile owner) {
+        return breakBlock(world, pos, ownerPos, owner, true, drops::add);
+    }
+
+    /** Breaks a block as the owner's fake player would, without creating any item entities. Rather than being dropped
+     * in the world, the block's drops and anything else that it drops inside itself while it's being removed (such as
+     * the contents of a chest) are given to the drop consumer once the block has been removed.
+     *
+     * @param harvest If false then the block's own drops are discarded, like {@link World#destroyBlock(BlockPos,
+     *            boolean)}. Anything else that the block drops is still given to the drop consumer.
+     * @return True if the block was broken, or false if the break event was cancelled. */
+    public static boolean breakBlock(WorldServer world, BlockPos pos, BlockPos ownerPos, GameProfile owner,
+        boolean harvest, Consumer<ItemStack> dropConsumer) {
         FakePlayer fakePlayer = BuildCraftAPI.fakePlayerProvider.getFakePlayer(world, owner, ownerPos);
-        BreakEvent breakEvent = new BreakEvent(world, pos, world.getBlockState(pos), fakePlayer);
+        IBlockState state = world.getBlockState(pos);
+        BreakEvent breakEvent = new BreakEvent(world, pos, state, fakePlayer);
         MinecraftForge.EVENT_BUS.post(breakEvent);
 
         if (breakEvent.isCanceled()) {
             return false;
         }
+        if (state.getBlock().isAir(state, world, pos)) {
+            return true;
+        }
 
-        if (!world.isAirBlock(pos) && !world.isRemote && world.getGameRules().getBoolean("doTileDrops")) {
+        List<ItemStack> drops = new ArrayList<>();
+        if (harvest && world.getGameRules().getBoolean("doTileDrops")) {
             drops.addAll(getItemStackFromBlock(world, pos, owner));
         }
-        world.setBlockToAir(pos);
+        world.playEvent(2001, pos, Block.getStateId(state));
+        captureDrops(world, pos, drops, () -> world.setBlockToAir(pos));
+        for (ItemStack stack : drops) {
+            if (stack != null) {
+                dropConsumer.accept(stack);
+            }
+        }
+        return true;
+    }
 
+    /** Runs the given action, adding every item that would be spawned inside the given block while it runs to the list
+     * of drops instead. Items that spawn anywhere else (such as a torch that pops off of a neighbouring block) are
+     * spawned as normal. If this is called while already capturing then the outer capture is restored afterwards. */
+    public static void captureDrops(World world, BlockPos pos, List<ItemStack> drops, Runnable action) {
+        World prevWorld = capturingWorld;
+        BlockPos prevPos = capturingPos;
+        List<ItemStack> prevDrops = capturedDrops;
+        capturingWorld = world;
+        capturingPos = pos;
+        capturedDrops = drops;
+        try {
+            action.run();
+        } finally {
+            capturingWorld = prevWorld;
+            capturingPos = prevPos;
+            capturedDrops = prevDrops;
+        }
+    }
+
+    /** Called whenever an entity joins a world.
+     *
+     * @return True if the item was captured by {@link #captureDrops(World, BlockPos, List, Runnable)}, and so shouldn't
+     *         be spawned. */
+    public static boolean captureDrop(EntityItem entity) {
+        return captureDrop(entity.worldObj, entity.posX, entity.posY, entity.posZ, entity.getEntityItem());
+    }
+
+    /** @return True if an item spawned at the given position was captured by
+     *         {@link #captureDrops(World, BlockPos, List, Runnable)}, and so shouldn't be spawned. */
+    public static boolean captureDrop(World world, double x, double y, double z, ItemStack stack) {
+        if (capturedDrops == null || world != capturingWorld) {
+            return false;
+        }
+        BlockPos from = capturingPos;
+        if (x < from.getX() || x > from.getX() + 1
+            || y < from.getY() || y > from.getY() + 1
+            || z < from.getZ() || z > from.getZ() + 1) {
+            return false;
+        }
+        capturedDrops.add(stack);
         return true;
     }
 
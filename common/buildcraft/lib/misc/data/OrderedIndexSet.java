@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.misc.data;
+
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/** A set of int indexes in [0, n) that iterates in a fixed order, given up front as a permutation of every index. This
+ * is backed by a {@link BitSet} of each index's position in that order, so adding and removing are O(1) and iterating
+ * only visits the words of the bitset rather than every possible index.
+ * <p>
+ * Iterators read the bitset directly, so indexes can be added or removed while iterating. Any that are added behind
+ * the iterator's current position won't be returned by it. */
+public class OrderedIndexSet {
+    private final int[] order;
+    private final int[] ranks;
+    private final BitSet set;
+    private int size;
+
+    /** @param order Every index in [0, order.length), in the order that they should be iterated in. This array is
+     *            used directly, and must not be changed afterwards. */
+    public OrderedIndexSet(int[] order) {
+        this.order = order;
+        this.ranks = new int[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        this.set = new BitSet(order.length);
+    }
+
+    /** @return True if the index wasn't already in this set. */
+    public boolean add(int index) {
+        int rank = ranks[index];
+        if (set.get(rank)) {
+            return false;
+        }
+        set.set(rank);
+        size++;
+        return true;
+    }
+
+    /** @return True if the index was in this set. */
+    public boolean remove(int index) {
+        int rank = ranks[index];
+        if (!set.get(rank)) {
+            return false;
+        }
+        set.clear(rank);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int index) {
+        return set.get(ranks[index]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        set.clear();
+        size = 0;
+    }
+
+    /** @return An iterator over every index in this set, in the order given to the constructor. */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < order.length && set.nextSetBit(cursor) >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                int rank = cursor < order.length ? set.nextSetBit(cursor) : -1;
+                if (rank < 0) {
+                    throw new NoSuchElementException();
+                }
+                cursor = rank + 1;
+                return order[rank];
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.misc.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+/** The tree of positions found by a breadth first search (such as a flood fill). Each node only stores its position
+ * (packed into a long, for example by {@link net.minecraft.util.math.BlockPos#toLong()}) and the index of the node
+ * that it was found from, rather than the whole path to it, so adding a node is O(1) however far away it is.
+ * <p>
+ * Nodes can be marked as blocked (usually from a block update) so that {@link #isPathClear(int)} can tell if a node
+ * can still be reached by only walking the parent indexes, without looking at the world again. */
+public class PositionTree {
+    public static final int NO_PARENT = -1;
+
+    private final TLongIntMap indexes = new TLongIntHashMap(16, 0.5f, Long.MIN_VALUE, -1);
+    private final BitSet blocked = new BitSet();
+    private long[] positions = new long[16];
+    private int[] parents = new int[16];
+    private int size;
+    private int blockedCount;
+
+    /** Adds a node, unless the position is already in this tree.
+     *
+     * @param parent The index of the node that this was found from, or {@link #NO_PARENT} if this is a root.
+     * @return The index of the node at the given position. */
+    public int add(long pos, int parent) {
+        int existing = indexes.get(pos);
+        if (existing != -1) {
+            return existing;
+        }
+        if (parent < NO_PARENT || parent >= size) {
+            throw new IllegalArgumentException("Unknown parent " + parent);
+        }
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            parents = Arrays.copyOf(parents, size * 2);
+        }
+        positions[size] = pos;
+        parents[size] = parent;
+        indexes.put(pos, size);
+        return size++;
+    }
+
+    /** @return The index of the node at the given position, or -1 if the position isn't in this tree. */
+    public int indexOf(long pos) {
+        return indexes.get(pos);
+    }
+
+    public long getPos(int index) {
+        return positions[index];
+    }
+
+    /** @return The index of the node that the given node was found from, or {@link #NO_PARENT} for a root. */
+    public int getParent(int index) {
+        return parents[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setBlocked(int index, boolean isBlocked) {
+        if (blocked.get(index) != isBlocked) {
+            blocked.set(index, isBlocked);
+            blockedCount += isBlocked ? 1 : -1;
+        }
+    }
+
+    public boolean isBlocked(int index) {
+        return blocked.get(index);
+    }
+
+    /** @return True if none of the nodes between the root and the given node are blocked. The node itself isn't
+     *         checked, as callers generally need to test that against the world anyway. */
+    public boolean isPathClear(int index) {
+        if (blockedCount == 0) {
+            return true;
+        }
+        for (int i = parents[index]; i != NO_PARENT; i = parents[i]) {
+            if (blocked.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        indexes.clear();
+        blocked.clear();
+        size = 0;
+        blockedCount = 0;
+    }
+}
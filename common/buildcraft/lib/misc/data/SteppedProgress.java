@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.misc.data;
+
+/** The client side of some progress (usually the power of a task) that the server only sends in steps of 1/
+ * {@link #STEPS} of its target, so that a tile only has to send an update when {@link #getStep(long, long)} changes
+ * rather than every tick. Between updates the progress is extrapolated at the rate that it increased between the last
+ * two updates, but never past the next step (as the server would have sent an update by then). */
+public class SteppedProgress {
+    public static final int STEPS = 32;
+
+    private long received;
+    private long rate;
+    private int ticksSinceReceived;
+    private long value;
+
+    /** @return Which step out of {@link #STEPS} the given progress is at. The server should send an update whenever
+     *         this changes. */
+    public static int getStep(long progress, long target) {
+        if (target <= 0 || progress >= target) {
+            return STEPS;
+        }
+        if (progress <= 0) {
+            return 0;
+        }
+        return (int) (progress * STEPS / target);
+    }
+
+    /** Called whenever the progress is received from the server. */
+    public void receive(long progress) {
+        if (progress < received) {
+            // Something else has started, so the old rate doesn't apply
+            rate = 0;
+            value = progress;
+        } else if (ticksSinceReceived > 0 && progress > received) {
+            rate = (progress - received) / ticksSinceReceived;
+        }
+        received = progress;
+        ticksSinceReceived = 0;
+        value = Math.max(value, progress);
+    }
+
+    /** Called once per client tick.
+     *
+     * @return The extrapolated progress. */
+    public long tick(long target) {
+        ticksSinceReceived++;
+        long max = Math.max(received, Math.min(target, received + target / STEPS));
+        value = Math.max(received, Math.min(max, value + rate));
+        return value;
+    }
+
+    public long getValue() {
+        return value;
+    }
+}
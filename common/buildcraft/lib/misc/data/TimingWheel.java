@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.misc.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/** A hierarchical timing wheel: an ordered queue of elements keyed on an absolute tick (usually
+ * {@link net.minecraft.world.World#getTotalWorldTime()}). Unlike {@link DelayedList} adding and advancing never shift
+ * or allocate whole lists, and advancing an empty wheel is free.
+ * <p>
+ * Each level has {@link #SLOTS} slots. Level 0 covers individual ticks, and every level above it covers
+ * {@link #SLOTS} times as many ticks per slot as the one below. Elements are moved down ("cascaded") a level whenever
+ * the wheel below them wraps around, so every element is moved at most {@link #LEVELS} times. Elements that are
+ * further in the future than the top level can hold are kept in a separate overflow list. */
+public class TimingWheel<E> {
+    private static final int SLOT_BITS = 6;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    public static final int LEVELS = 4;
+
+    private final ToLongFunction<E> deadlineGetter;
+    private final List<List<E>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<E> overflow = new ArrayList<>();
+    private List<E> spare = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    /** @param deadlineGetter Gets the absolute tick that an element should be returned from
+     *            {@link #advanceTo(long, Consumer)}. This must not change while the element is in this wheel.
+     * @param startTick The tick that this wheel starts at. Elements added with a deadline at or before this will be
+     *            returned on the next tick. */
+    public TimingWheel(ToLongFunction<E> deadlineGetter, long startTick) {
+        this.deadlineGetter = deadlineGetter;
+        this.currentTick = startTick;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(null);
+        }
+    }
+
+    /** @return The last tick that was passed to {@link #advanceTo(long, Consumer)}. */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /** @return The number of elements that have been added but not yet returned. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Adds an element that will be returned by {@link #advanceTo(long, Consumer)} on the tick given by the deadline
+     * getter. Deadlines that have already passed are returned on the next tick. */
+    public void add(E element) {
+        long deadline = deadlineGetter.applyAsLong(element);
+        if (deadline <= currentTick) {
+            deadline = currentTick + 1;
+        }
+        insert(element, deadline);
+        size++;
+    }
+
+    private void insert(E element, long deadline) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((deadline >> shift) == (currentTick >> shift)) {
+                int slot = (int) (deadline >> (SLOT_BITS * level)) & SLOT_MASK;
+                getSlot(level, slot).add(element);
+                return;
+            }
+        }
+        overflow.add(element);
+    }
+
+    private List<E> getSlot(int level, int slot) {
+        int index = level * SLOTS + slot;
+        List<E> list = slots.get(index);
+        if (list == null) {
+            list = new ArrayList<>();
+            slots.set(index, list);
+        }
+        return list;
+    }
+
+    /** Advances this wheel up to (and including) the given tick, passing every element whose deadline has been
+     * reached to the given consumer. The consumer may add new elements to this wheel: any that are due on or before
+     * the tick being processed will be returned on the next tick instead. */
+    public void advanceTo(long tick, Consumer<E> consumer) {
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                return;
+            }
+            long now = currentTick + 1;
+            currentTick = now;
+            for (int level = LEVELS; level > 0; level--) {
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, now);
+                }
+            }
+            int index = (int) now & SLOT_MASK;
+            List<E> due = slots.get(index);
+            if (due == null || due.isEmpty()) {
+                continue;
+            }
+            // Swap in an empty list so that the consumer can safely add elements back into this wheel
+            slots.set(index, spare);
+            size -= due.size();
+            for (E element : due) {
+                consumer.accept(element);
+            }
+            due.clear();
+            spare = due;
+        }
+    }
+
+    private void cascade(int level, long now) {
+        List<E> from;
+        if (level == LEVELS) {
+            if (overflow.isEmpty()) {
+                return;
+            }
+            from = new ArrayList<>(overflow);
+            overflow.clear();
+        } else {
+            int index = level * SLOTS + ((int) (now >> (SLOT_BITS * level)) & SLOT_MASK);
+            from = slots.get(index);
+            if (from == null || from.isEmpty()) {
+                return;
+            }
+            slots.set(index, spare);
+            spare = from;
+        }
+        // currentTick == now, so re-inserting these always puts them in a lower level
+        for (E element : from) {
+            long deadline = deadlineGetter.applyAsLong(element);
+            insert(element, deadline < now ? now : deadline);
+        }
+        from.clear();
+    }
+
+    /** Removes *all* elements from this wheel. */
+    public void clear() {
+        for (List<E> list : slots) {
+            if (list != null) {
+                list.clear();
+            }
+        }
+        overflow.clear();
+        size = 0;
+    }
+}
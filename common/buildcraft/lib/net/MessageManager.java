@@ -46,7 +46,9 @@ public class MessageManager {
 
         BC_ROBOTICS_ZONE_REQUEST(0x0C),
         BC_ROBOTICS_ZONE_REPLY(0x0D),
-        BC_ROBOTICS_ROBOTS(0x0E);
+        BC_ROBOTICS_ROBOTS(0x0E),
+
+        BC_LIB_TILE_UPDATE_BATCH(0x0F);
 
         static {
             // Sanity check
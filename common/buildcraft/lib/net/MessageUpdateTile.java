@@ -19,6 +19,7 @@ import net.minecraft.util.math.BlockPos;
 
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
 import buildcraft.api.core.BCLog;
 
@@ -65,17 +66,25 @@ public class MessageUpdateTile implements IMessage {
         if (player == null || player.worldObj == null) {
             return null;
         }
-        TileEntity tile = player.worldObj.getTileEntity(message.pos);
+        return handle(player, ctx, message.pos, message.payload);
+    };
+
+    /** Gives the payload to the tile at the given position in the player's world. Shared with
+     * {@link MessageUpdateTileBatch}.
+     *
+     * @return The reply that the tile wants to send back, if any. */
+    static IMessage handle(EntityPlayer player, MessageContext ctx, BlockPos pos, PacketBufferBC payload) {
+        TileEntity tile = player.worldObj.getTileEntity(pos);
         if (tile instanceof IPayloadReceiver) {
             try {
-                return ((IPayloadReceiver) tile).receivePayload(ctx, message.payload);
+                return ((IPayloadReceiver) tile).receivePayload(ctx, payload);
             } catch (IOException io) {
                 throw Throwables.propagate(io);
             }
         } else {
-            BCLog.logger.warn("Dropped message for player " + player.getName() + " for tile at " + message.pos
+            BCLog.logger.warn("Dropped message for player " + player.getName() + " for tile at " + pos
                 + " (found " + tile + ")");
         }
         return null;
-    };
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.net;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.google.common.base.Throwables;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+
+import buildcraft.lib.BCLibProxy;
+import buildcraft.lib.misc.MessageUtil;
+
+/** The payloads of many {@link MessageUpdateTile}s for tiles in the same chunk, sent together as a single message.
+ * Larger batches are compressed. These are created by {@link TileUpdateBatcher}. */
+public class MessageUpdateTileBatch implements IMessage {
+    /** Batches smaller than this aren't worth compressing. */
+    private static final int COMPRESSION_THRESHOLD = 256;
+    /** The largest batch that {@link TileUpdateBatcher} can create: a batch that is just under its limit, and then
+     * one more update with the largest possible payload (and its position and length). */
+    private static final int MAX_LENGTH = TileUpdateBatcher.MAX_BATCH_SIZE + TileUpdateBatcher.MAX_PAYLOAD_SIZE + 16;
+    /** Only used on the server thread, by {@link #create(ByteBuf)}. */
+    private static final Deflater DEFLATER = new Deflater(Deflater.BEST_SPEED);
+
+    private boolean compressed;
+    private int uncompressedLength;
+    private byte[] data;
+
+    @SuppressWarnings("unused")
+    public MessageUpdateTileBatch() {
+    }
+
+    private MessageUpdateTileBatch(boolean compressed, int uncompressedLength, byte[] data) {
+        this.compressed = compressed;
+        this.uncompressedLength = uncompressedLength;
+        this.data = data;
+    }
+
+    /** @param batch Every update in the batch, as the position, then the payload length as a medium, then the payload.
+     *            This doesn't change or release the buffer. */
+    public static MessageUpdateTileBatch create(ByteBuf batch) {
+        byte[] bytes = new byte[batch.readableBytes()];
+        batch.getBytes(batch.readerIndex(), bytes);
+        if (bytes.length < COMPRESSION_THRESHOLD) {
+            return new MessageUpdateTileBatch(false, bytes.length, bytes);
+        }
+        DEFLATER.reset();
+        DEFLATER.setInput(bytes);
+        DEFLATER.finish();
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 2);
+        byte[] buffer = new byte[4096];
+        while (!DEFLATER.finished()) {
+            int count = DEFLATER.deflate(buffer);
+            deflated.write(buffer, 0, count);
+        }
+        if (deflated.size() >= bytes.length) {
+            return new MessageUpdateTileBatch(false, bytes.length, bytes);
+        }
+        return new MessageUpdateTileBatch(true, bytes.length, deflated.toByteArray());
+    }
+
+    /** @return Every update in the batch, in the same format that was given to {@link #create(ByteBuf)}. */
+    public byte[] getUncompressed() throws DataFormatException {
+        if (!compressed) {
+            return data;
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] bytes = new byte[uncompressedLength];
+            int read = 0;
+            while (read < bytes.length && !inflater.finished()) {
+                int count = inflater.inflate(bytes, read, bytes.length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != bytes.length) {
+                throw new DataFormatException("Expected " + bytes.length + " bytes, but only inflated " + read);
+            }
+            return bytes;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        compressed = buf.readBoolean();
+        uncompressedLength = buf.readInt();
+        int length = buf.readInt();
+        if (uncompressedLength < 0 || uncompressedLength > MAX_LENGTH) {
+            throw new DecoderException("Invalid uncompressed length " + uncompressedLength);
+        }
+        if (length < 0 || length > buf.readableBytes() || length > MAX_LENGTH) {
+            throw new DecoderException("Invalid length " + length + " (" + buf.readableBytes() + " readable)");
+        }
+        if (!compressed && length != uncompressedLength) {
+            throw new DecoderException("Expected " + uncompressedLength + " bytes, but was sent " + length);
+        }
+        data = new byte[length];
+        buf.readBytes(data);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        buf.writeBoolean(compressed);
+        buf.writeInt(uncompressedLength);
+        buf.writeInt(data.length);
+        buf.writeBytes(data);
+    }
+
+    public static final IMessageHandler<MessageUpdateTileBatch, IMessage> HANDLER = (message, ctx) -> {
+        EntityPlayer player = BCLibProxy.getProxy().getPlayerForContext(ctx);
+        if (player == null || player.worldObj == null) {
+            return null;
+        }
+        ByteBuf buf;
+        try {
+            buf = Unpooled.wrappedBuffer(message.getUncompressed());
+        } catch (DataFormatException e) {
+            throw Throwables.propagate(e);
+        }
+        PacketBuffer reader = new PacketBuffer(buf);
+        while (buf.isReadable()) {
+            BlockPos pos = MessageUtil.readBlockPos(reader);
+            int size = buf.readUnsignedMedium();
+            PacketBufferBC payload = new PacketBufferBC(buf.readSlice(size));
+            IMessage reply = MessageUpdateTile.handle(player, ctx, pos, payload);
+            if (reply != null) {
+                MessageUtil.sendReturnMessage(ctx, reply);
+            }
+        }
+        return null;
+    };
+}
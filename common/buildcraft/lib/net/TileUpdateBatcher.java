@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.lib.net;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+
+import buildcraft.lib.BCLibConfig;
+import buildcraft.lib.misc.MessageUtil;
+
+/** Collects the tile updates that would each be sent as their own {@link MessageUpdateTile} to every player watching a
+ * chunk, and sends them as one {@link MessageUpdateTileBatch} per chunk at the end of the server tick instead. Only
+ * used if {@link BCLibConfig#batchTileUpdates} is true.
+ * <p>
+ * Updates are written straight into a pooled buffer per chunk, which is released once the batch has been sent. */
+public final class TileUpdateBatcher {
+    /** Batches that grow larger than this are sent straight away, rather than waiting for the end of the tick. */
+    static final int MAX_BATCH_SIZE = 1 << 20;
+    static final int MAX_PAYLOAD_SIZE = (1 << 24) - 1;
+
+    private static final Map<World, TLongObjectMap<ByteBuf>> BATCHES = new HashMap<>();
+
+    private TileUpdateBatcher() {}
+
+    /** Adds an update to the batch for the chunk that the given position is in. This writes the payload immediately,
+     * so the writer doesn't need to be valid after this returns. */
+    public static void addUpdate(WorldServer world, BlockPos pos, int id, IPayloadWriter writer) {
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        if (world.getPlayerChunkMap().getEntry(chunkX, chunkZ) == null) {
+            // No-one is watching this chunk
+            return;
+        }
+        TLongObjectMap<ByteBuf> batches = BATCHES.computeIfAbsent(world, w -> new TLongObjectHashMap<>());
+        long key = chunkKey(chunkX, chunkZ);
+        ByteBuf batch = batches.get(key);
+        if (batch == null) {
+            batch = PooledByteBufAllocator.DEFAULT.buffer();
+            batches.put(key, batch);
+        }
+        int start = batch.writerIndex();
+        try {
+            MessageUtil.writeBlockPos(new PacketBuffer(batch), pos);
+            int lengthIndex = batch.writerIndex();
+            batch.writeMedium(0);
+            // A new buffer for every payload, so that partially written bytes of flags are never shared between them
+            PacketBufferBC payload = new PacketBufferBC(batch);
+            payload.writeShort(id);
+            writer.write(payload);
+            int length = batch.writerIndex() - lengthIndex - 3;
+            if (length > MAX_PAYLOAD_SIZE) {
+                throw new IllegalStateException("Can't write out " + length + "bytes!");
+            }
+            batch.setMedium(lengthIndex, length);
+        } catch (RuntimeException e) {
+            // Don't leave half of an update in the batch
+            batch.writerIndex(start);
+            throw e;
+        }
+        if (batch.readableBytes() > MAX_BATCH_SIZE) {
+            batches.remove(key);
+            send(world, chunkX, chunkZ, batch);
+        }
+    }
+
+    /** Sends every batch. Called at the end of every server tick. */
+    public static void flush() {
+        for (Map.Entry<World, TLongObjectMap<ByteBuf>> entry : BATCHES.entrySet()) {
+            World world = entry.getKey();
+            TLongObjectMap<ByteBuf> batches = entry.getValue();
+            batches.forEachEntry((key, batch) -> {
+                send(world, (int) (key >> 32), (int) key, batch);
+                return true;
+            });
+            batches.clear();
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        TLongObjectMap<ByteBuf> batches = BATCHES.remove(world);
+        if (batches != null) {
+            batches.forEachValue(batch -> {
+                batch.release();
+                return true;
+            });
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFF_FFFFL);
+    }
+
+    private static void send(World world, int chunkX, int chunkZ, ByteBuf batch) {
+        try {
+            if (batch.isReadable()) {
+                BlockPos pos = new BlockPos(chunkX << 4, 0, chunkZ << 4);
+                MessageUtil.sendToAllWatching(world, pos, MessageUpdateTileBatch.create(batch));
+            }
+        } finally {
+            batch.release();
+        }
+    }
+}
@@ -79,6 +79,13 @@ public class BuildCraftObjectCaches {
         }
     }
 
+    /** Called by BuildCraftLib at the end of every server tick. */
+    public static void onServerTick() {
+        for (NetworkedObjectCache<?> cache : CACHES) {
+            cache.onServerTick();
+        }
+    }
+
     /** Called by BuildCraftLib on every client tick. */
     public static void onClientTick() {
         for (NetworkedObjectCache<?> cache : CACHES) {
@@ -8,13 +8,12 @@ package buildcraft.lib.net.cache;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.function.Supplier;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-
 import net.minecraft.client.Minecraft;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.MinecraftServer;
@@ -44,23 +43,41 @@ public abstract class NetworkedObjectCache<T> {
     static final boolean DEBUG_LOG = BCDebugging.shouldDebugLog("lib.net.cache");
     static final boolean DEBUG_CPLX = BCDebugging.shouldDebugComplex("lib.net.cache");
 
-    /* Implementation notes -- this currently is a simple, never expiring object<->id cache.
+    /* Implementation notes -- this is an object<->id cache that expires objects that haven't been used recently.
      * 
-     * Because it doesn't ever clear objects out of the cache we can guarantee that the index of an object is unique,
-     * just by incrementing a single variable. */
+     * IDs are never reused (they just come from incrementing a single variable) so an ID can never refer to a different
+     * object after the original one has expired. If an expired object is stored again then it gets a new ID, and if a
+     * client asks for an ID that has expired then it is told that it is gone, rather than being sent anything. */
+
+    /** How often (in ticks) expired entries are looked for. */
+    private static final int SWEEP_INTERVAL = 20 * 30;
+    /** Server entries that haven't been stored or requested for this many ticks are removed. */
+    private static final int SERVER_EXPIRY_TICKS = 20 * 60 * 5;
+    /** Server entries are never removed until they haven't been used for this many ticks, even if there are more than
+     * {@link #SERVER_MAX_SIZE} of them, so that clients have time to ask for any IDs that they have just been sent. */
+    private static final int SERVER_MIN_AGE_TICKS = 20 * 60;
+    /** The number of server entries above which the least recently used ones will be removed early. */
+    private static final int SERVER_MAX_SIZE = 1 << 14;
+    /** Client links that haven't been retrieved for this many ticks are removed. Anything still holding on to the link
+     * keeps the object. */
+    private static final int CLIENT_EXPIRY_TICKS = 20 * 60 * 5;
 
     /** The default object -- used at the client in case the object hasn't been sent to the client yet. */
     protected final T defaultObject;
 
-    private final BiMap<Integer, T> serverIdToObject = HashBiMap.create();
-    /** Server side map of the object to its integer ID. Inverse of {@link #serverIdToObject} */
-    private final BiMap<T, Integer> serverObjectToId = serverIdToObject.inverse();
+    /** Server side map of every stored object to its entry, from least to most recently used. */
+    private final LinkedHashMap<T, ServerEntry> serverObjects = new LinkedHashMap<>(16, 0.75f, true);
+    /** Server side map of the ID of every stored object to its entry. */
+    private final Int2ObjectMap<ServerEntry> serverIds = new Int2ObjectOpenHashMap<>();
 
     /** The ID for the next stored object. */
     private int serverCurrentId = 0;
+    private long serverTicks = 0;
+    private long serverHits, serverMisses, serverEvictions;
 
     /** The list of cached client-side objects. */
     private final Int2ObjectMap<Link> clientObjects = new Int2ObjectOpenHashMap<>();
+    private long clientTicks = 0;
     /** The list of all links that are currently unknown. */
     private final Queue<Link> clientUnknowns = new LinkedList<>();
 
@@ -117,6 +134,22 @@ public abstract class NetworkedObjectCache<T> {
         public int getId(T value) {
             return serverGetId(value);
         }
+
+        /** @return The number of objects that are currently stored. */
+        public int getSize() {
+            return serverObjects.size();
+        }
+
+        /** @return The fraction of calls to {@link #store(Object)} that found an object that was already stored. */
+        public double getHitRate() {
+            long total = serverHits + serverMisses;
+            return total == 0 ? 0 : serverHits / (double) total;
+        }
+
+        /** @return The number of objects that have been removed since the game started. */
+        public long getEvictions() {
+            return serverEvictions;
+        }
     }
 
     /** The client view of the cache. */
@@ -130,6 +163,22 @@ public abstract class NetworkedObjectCache<T> {
         public Link retrieve(int id) {
             return clientRetrieve(id);
         }
+
+        /** @return The number of links that are currently stored. */
+        public int getSize() {
+            return clientObjects.size();
+        }
+    }
+
+    private final class ServerEntry {
+        final int id;
+        final T object;
+        long lastUsed;
+
+        ServerEntry(int id, T object) {
+            this.id = id;
+            this.object = object;
+        }
     }
 
     /** Defines a link to a cached object (on the client - don't use this on the server). If */
@@ -141,6 +190,12 @@ public abstract class NetworkedObjectCache<T> {
         /** The id of this value. */
         final int id;
 
+        /** The client tick that this was last retrieved on. */
+        long lastRetrieved;
+
+        /** True if the server no longer knows about this id, so it will never be received. */
+        boolean gone;
+
         Link(int id) {
             this.id = id;
         }
@@ -190,11 +245,15 @@ public abstract class NetworkedObjectCache<T> {
      * @return */
     private int serverStore(T object) {
         T canonical = getCanonical(object);
-        Integer current = serverObjectToId.get(canonical);
+        ServerEntry current = serverObjects.get(canonical);
         if (current == null) {
             // new entry
             int id = serverCurrentId++;
-            serverObjectToId.put(canonical, id);
+            ServerEntry entry = new ServerEntry(id, canonical);
+            entry.lastUsed = serverTicks;
+            serverObjects.put(canonical, entry);
+            serverIds.put(id, entry);
+            serverMisses++;
             if (DEBUG_CPLX) {
                 String toString;
                 if (canonical instanceof FluidStack) {
@@ -208,7 +267,9 @@ public abstract class NetworkedObjectCache<T> {
             return id;
         } else {
             // existing entry
-            return current;
+            current.lastUsed = serverTicks;
+            serverHits++;
+            return current.id;
         }
     }
 
@@ -220,12 +281,13 @@ public abstract class NetworkedObjectCache<T> {
      * @return */
     private int serverGetId(T object) {
         T canonical = getCanonical(object);
-        Integer current = serverObjectToId.get(canonical);
+        ServerEntry current = serverObjects.get(canonical);
         if (current == null) {
             // Unknown entry
             return -1;
         } else {
-            return current;
+            current.lastUsed = serverTicks;
+            return current.id;
         }
     }
 
@@ -243,13 +305,23 @@ public abstract class NetworkedObjectCache<T> {
             clientUnknowns.add(current);
             clientObjects.put(id, current);
         }
+        current.lastRetrieved = clientTicks;
         return current;
     }
 
-    /** Used by {@link MessageObjectCacheRequest#HANDLER} to write the actual object out. */
-    void writeObjectServer(int id, PacketBufferBC buffer) {
-        T obj = serverIdToObject.get(id);
-        writeObject(obj, buffer);
+    /** Used by {@link MessageObjectCacheRequest#HANDLER} to write the actual object out.
+     * 
+     * @return False if the object with the given id has expired, so nothing was written. */
+    boolean writeObjectServer(int id, PacketBufferBC buffer) {
+        ServerEntry entry = serverIds.get(id);
+        if (entry == null) {
+            return false;
+        }
+        // Mark it as recently used
+        serverObjects.get(entry.object);
+        entry.lastUsed = serverTicks;
+        writeObject(entry.object, buffer);
+        return true;
     }
 
     /** Used by {@link MessageObjectCacheResponse#HANDLER} to read an object in.
@@ -273,11 +345,52 @@ public abstract class NetworkedObjectCache<T> {
         }
     }
 
+    /** Used by {@link MessageObjectCacheResponse#HANDLER} when the server no longer knows about the given id. */
+    void markGoneClient(int id) {
+        Link link = clientObjects.get(id);
+        if (link != null) {
+            link.gone = true;
+        }
+        if (DEBUG_CPLX) {
+            BCLog.logger.info("[lib.net.cache] The cache " + getNameAndId() + " was told that #" + id + " has expired");
+        }
+    }
+
     final String getNameAndId() {
         return "(" + BuildCraftObjectCaches.CACHES.indexOf(this) + " = " + getCacheName() + ")";
     }
 
+    void onServerTick() {
+        serverTicks++;
+        if (serverTicks % SWEEP_INTERVAL != 0 && serverObjects.size() <= SERVER_MAX_SIZE) {
+            return;
+        }
+        int before = serverObjects.size();
+        // The least recently used entries are first, so stop at the first one that has been used recently
+        Iterator<ServerEntry> iter = serverObjects.values().iterator();
+        while (iter.hasNext()) {
+            ServerEntry entry = iter.next();
+            long age = serverTicks - entry.lastUsed;
+            if (age < SERVER_MIN_AGE_TICKS || (age < SERVER_EXPIRY_TICKS && serverObjects.size() <= SERVER_MAX_SIZE)) {
+                break;
+            }
+            iter.remove();
+            serverIds.remove(entry.id);
+            serverEvictions++;
+        }
+        if (DEBUG_LOG && serverTicks % SWEEP_INTERVAL == 0) {
+            int removed = before - serverObjects.size();
+            BCLog.logger.info("[lib.net.cache] The cache " + getNameAndId() + " removed " + removed
+                + " entries, leaving " + serverObjects.size() + " (hit rate = " + server().getHitRate() + ")");
+        }
+    }
+
     void onClientWorldTick() {
+        clientTicks++;
+        if (clientTicks % SWEEP_INTERVAL == 0) {
+            clientObjects.values().removeIf(link -> clientTicks - link.lastRetrieved > CLIENT_EXPIRY_TICKS
+                && (link.hasBeenReceived() || link.gone));
+        }
         int[] ids = new int[clientUnknowns.size()];
         for (int i = 0; i < ids.length; i++) {
             ids[i] = clientUnknowns.remove().id;
@@ -39,6 +39,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.Explosion;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.Constants;
@@ -53,6 +54,7 @@ import buildcraft.api.core.BCDebugging;
 import buildcraft.api.core.BCLog;
 import buildcraft.api.core.IPlayerOwned;
 
+import buildcraft.lib.BCLibConfig;
 import buildcraft.lib.cap.CapabilityHelper;
 import buildcraft.lib.client.render.DetachedRenderer.IDetachedRenderer;
 import buildcraft.lib.debug.BCAdvDebugging;
@@ -74,6 +76,7 @@ import buildcraft.lib.net.IPayloadWriter;
 import buildcraft.lib.net.MessageManager;
 import buildcraft.lib.net.MessageUpdateTile;
 import buildcraft.lib.net.PacketBufferBC;
+import buildcraft.lib.net.TileUpdateBatcher;
 import buildcraft.lib.registry.TagManager;
 import buildcraft.lib.registry.TagManager.EnumTagType;
 import buildcraft.lib.registry.TagManager.EnumTagTypeMulti;
@@ -359,11 +362,13 @@ public abstract class TileBC_Neptune extends TileEntity implements IPayloadRecei
     /** Sends a network update update of the specified ID. */
     public final void sendNetworkUpdate(int id) {
         if (hasWorldObj()) {
-            MessageUpdateTile message = createNetworkUpdate(id);
             if (worldObj.isRemote) {
-                MessageManager.sendToServer(message);
+                MessageManager.sendToServer(createNetworkUpdate(id));
+            } else if (BCLibConfig.batchTileUpdates && worldObj instanceof WorldServer) {
+                IPayloadWriter writer = buffer -> writePayload(id, buffer, Side.SERVER);
+                TileUpdateBatcher.addUpdate((WorldServer) worldObj, pos, id, writer);
             } else {
-                MessageUtil.sendToAllWatching(worldObj, pos, message);
+                MessageUtil.sendToAllWatching(worldObj, pos, createNetworkUpdate(id));
             }
         }
     }
@@ -405,11 +410,12 @@ public abstract class TileBC_Neptune extends TileEntity implements IPayloadRecei
 
     public final void createAndSendMessage(int id, IPayloadWriter writer) {
         if (hasWorldObj()) {
-            IMessage message = createMessage(id, writer);
             if (worldObj.isRemote) {
-                MessageManager.sendToServer(message);
+                MessageManager.sendToServer(createMessage(id, writer));
+            } else if (BCLibConfig.batchTileUpdates && worldObj instanceof WorldServer) {
+                TileUpdateBatcher.addUpdate((WorldServer) worldObj, pos, id, writer);
             } else {
-                MessageUtil.sendToAllWatching(worldObj, pos, message);
+                MessageUtil.sendToAllWatching(worldObj, pos, createMessage(id, writer));
             }
         }
     }
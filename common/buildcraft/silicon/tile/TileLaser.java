@@ -43,6 +43,7 @@ import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.misc.VolumeUtil;
 import buildcraft.lib.misc.data.AverageLong;
 import buildcraft.lib.misc.data.Box;
+import buildcraft.lib.misc.data.SteppedProgress;
 import buildcraft.lib.mj.MjBatteryReceiver;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.tile.TileBC_Neptune;
@@ -63,6 +64,9 @@ public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable,
 
     private final AverageLong avgPower = new AverageLong(100);
     private long averageClient;
+    /** What the client was last sent, so that {@link #NET_RENDER_DATA} is only sent when one of these changes. */
+    private BlockPos lastSentTargetPos;
+    private int lastSentPowerStep = -1;
     private final MjBattery battery;
 
     public TileLaser() {
@@ -177,7 +181,6 @@ public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable,
         // set target tile on server side
         avgPower.tick();
 
-        BlockPos previousTargetPos = targetPos;
         if (worldHasUpdated) {
             findPossibleTargets();
             worldHasUpdated = false;
@@ -207,7 +210,11 @@ public class TileLaser extends TileBC_Neptune implements ITickable, IDebuggable,
             avgPower.clear();
         }
 
-        if (!Objects.equals(previousTargetPos, targetPos) || true) {
+        // The average power is only sent in steps, as that's all that the laser's render changes with
+        int powerStep = SteppedProgress.getStep((long) avgPower.getAverage(), getMaxPowerPerTick());
+        if (!Objects.equals(lastSentTargetPos, targetPos) || powerStep != lastSentPowerStep) {
+            lastSentTargetPos = targetPos;
+            lastSentPowerStep = powerStep;
             sendNetworkUpdate(NET_RENDER_DATA);
         }
     }
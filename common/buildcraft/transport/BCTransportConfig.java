@@ -43,11 +43,23 @@ public class BCTransportConfig {
     public static long mjPerItem = MjAPI.MJ;
     public static int baseFlowRate = 10;
     public static PowerLossMode lossMode = PowerLossMode.DEFAULT;
+    /** If true then item pipes cache their routing decisions until their pipe network changes. This is optional as
+     * addon pipes might not route items deterministically. */
+    public static boolean cacheItemRoutes = false;
+    /** If true then connected simple fluid pipes move their fluid as one segment, rather than each pipe moving fluid
+     * between its own sections every tick. */
+    public static boolean fluidNetworkSolver = false;
+    /** If true then power moves straight from where it enters a power pipe network to every receiver connected to it
+     * each tick, rather than one pipe per tick. */
+    public static boolean powerNetworkSolver = false;
 
     private static Property propMjPerMillibucket;
     private static Property propMjPerItem;
     private static Property propBaseFlowRate;
     private static Property propLossMode;
+    private static Property propCacheItemRoutes;
+    private static Property propFluidNetworkSolver;
+    private static Property propPowerNetworkSolver;
 
     public static void preInit() {
         Configuration config = BCCoreConfig.config;
@@ -64,10 +76,28 @@ public class BCTransportConfig {
         ConfigUtil.setEnumProperty(propLossMode, PowerLossMode.VALUES);
         EnumRestartRequirement.WORLD.setTo(propLossMode);
 
+        propCacheItemRoutes = config.get("experimental", "pipes.cacheItemRoutes", cacheItemRoutes);
+        propCacheItemRoutes.setComment("Caches item routing decisions until the pipe network changes."
+            + " Disable this if pipes from other mods route items randomly.");
+        EnumRestartRequirement.NONE.setTo(propCacheItemRoutes);
+
+        propFluidNetworkSolver = config.get("experimental", "pipes.fluidNetworkSolver", fluidNetworkSolver);
+        propFluidNetworkSolver.setComment("Moves fluid through connected stone, cobblestone, quartz, gold and"
+            + " sandstone fluid pipes as a single segment, rather than pipe by pipe.");
+        EnumRestartRequirement.NONE.setTo(propFluidNetworkSolver);
+
+        propPowerNetworkSolver = config.get("experimental", "pipes.powerNetworkSolver", powerNetworkSolver);
+        propPowerNetworkSolver.setComment("Moves power through each network of kinesis pipes in a single step,"
+            + " rather than pipe by pipe.");
+        EnumRestartRequirement.NONE.setTo(propPowerNetworkSolver);
+
         MinecraftForge.EVENT_BUS.register(BCTransportConfig.class);
     }
 
     public static void reloadConfig(EnumRestartRequirement restarted) {
+        cacheItemRoutes = propCacheItemRoutes.getBoolean();
+        fluidNetworkSolver = propFluidNetworkSolver.getBoolean();
+        powerNetworkSolver = propPowerNetworkSolver.getBoolean();
         if (EnumRestartRequirement.WORLD.hasBeenRestarted(restarted)) {
             mjPerMillibucket = propMjPerMillibucket.getLong();
             if (mjPerMillibucket < MJ_REQ_MILLIBUCKET_MIN) {
@@ -6,14 +6,23 @@
 
 package buildcraft.transport;
 
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.World;
+
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.event.world.ChunkWatchEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import buildcraft.transport.client.render.PipeWireRenderer;
+import buildcraft.transport.pipe.PipeNetworkGraph;
+import buildcraft.transport.pipe.flow.FluidSegmentSolver;
+import buildcraft.transport.pipe.flow.PipeItemScheduler;
+import buildcraft.transport.pipe.flow.PowerNetworkSolver;
 import buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 public enum BCTransportEventDist {
@@ -24,11 +33,33 @@ public enum BCTransportEventDist {
         if (!event.world.isRemote && event.world.getMinecraftServer() != null) {
             WorldSavedDataWireSystems.get(event.world).tick();
         }
+        if (event.phase == Phase.END) {
+            PipeItemScheduler.onWorldTick(event.world);
+        }
+    }
+
+    @SubscribeEvent
+    @SideOnly(Side.CLIENT)
+    public void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase == Phase.END) {
+            World world = Minecraft.getMinecraft().theWorld;
+            if (world != null) {
+                PipeItemScheduler.onWorldTick(world);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        PipeItemScheduler.onWorldUnload(event.getWorld());
+        PipeNetworkGraph.onWorldUnload(event.getWorld());
+        FluidSegmentSolver.onWorldUnload(event.getWorld());
+        PowerNetworkSolver.onWorldUnload(event.getWorld());
     }
 
     @SubscribeEvent
     public void onChunkWatch(ChunkWatchEvent event) {
-        WorldSavedDataWireSystems.get(event.getPlayer().worldObj).changedPlayers.add(event.getPlayer());
+        WorldSavedDataWireSystems.get(event.getPlayer().worldObj).onChunkWatch(event.getPlayer(), event.getChunk());
     }
 
     @SubscribeEvent
@@ -13,6 +13,7 @@ import javax.vecmath.Tuple3f;
 import javax.vecmath.Vector3f;
 
 import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.item.EnumDyeColor;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
@@ -75,9 +76,10 @@ public enum PipeFlowRendererItems implements IPipeFlowRenderer<PipeFlowItems> {
                 ItemRenderUtil.renderItemStack(x + pos.xCoord, y + pos.yCoord, z + pos.zCoord,//
                         stack, lightc, item.getRenderDirection(now, partialTicks), vb);
             }
-            if (item.colour != null) {
+            EnumDyeColor colour = item.getColour();
+            if (colour != null) {
                 vb.setTranslation(x + pos.xCoord, y + pos.yCoord, z + pos.zCoord);
-                int col = ColourUtil.getLightHex(item.colour);
+                int col = ColourUtil.getLightHex(colour);
                 int r = (col >> 16) & 0xFF;
                 int g = (col >> 8) & 0xFF;
                 int b = col & 0xFF;
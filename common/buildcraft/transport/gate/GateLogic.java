@@ -56,6 +56,7 @@ import buildcraft.transport.gate.TriggerWrapper.TriggerWrapperInternal;
 import buildcraft.transport.gate.TriggerWrapper.TriggerWrapperInternalSided;
 import buildcraft.transport.plug.PluggableGate;
 import buildcraft.transport.wire.IWireEmitter;
+import buildcraft.transport.wire.WireSystem;
 import buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContainer {
@@ -405,7 +406,8 @@ public class GateLogic implements IGate, IWireEmitter, IRedstoneStatementContain
             // FIXME: add call to "wires.emittingColour(turnedOff)"
 
             if (!getPipeHolder().getPipeWorld().isRemote) {
-                WorldSavedDataWireSystems.get(getPipeHolder().getPipeWorld()).gatesChanged = true;
+                WorldSavedDataWireSystems.get(getPipeHolder().getPipeWorld())
+                    .markEmitterChanged(new WireSystem.WireElement(getPipeHolder().getPipePos(), pluggable.side));
             }
         }
 
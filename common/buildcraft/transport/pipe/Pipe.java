@@ -20,6 +20,7 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -44,6 +45,9 @@ import buildcraft.lib.misc.NBTUtilBC;
 import buildcraft.lib.net.PacketBufferBC;
 
 import buildcraft.transport.client.model.key.PipeModelKey;
+import buildcraft.transport.pipe.flow.FluidSegmentSolver;
+import buildcraft.transport.pipe.flow.ISleepableFlow;
+import buildcraft.transport.pipe.flow.PowerNetworkSolver;
 
 public final class Pipe implements IPipe, IDebuggable {
     public final IPipeHolder holder;
@@ -214,7 +218,9 @@ public final class Pipe implements IPipe, IDebuggable {
 
     public void onTick() {
         behaviour.onTick();
-        flow.onTick();
+        if (!(flow instanceof ISleepableFlow) || !((ISleepableFlow) flow).isSleeping()) {
+            flow.onTick();
+        }
         if (updateMarked) {
             updateConnections();
         }
@@ -227,6 +233,7 @@ public final class Pipe implements IPipe, IDebuggable {
         updateMarked = false;
 
         EnumMap<EnumFacing, Float> old = connected.clone();
+        EnumMap<EnumFacing, ConnectedType> oldTypes = types.clone();
 
         connected.clear();
         types.clear();
@@ -286,9 +293,22 @@ public final class Pipe implements IPipe, IDebuggable {
                 }
             }
         }
+        if (!old.equals(connected) || !oldTypes.equals(types)) {
+            invalidateNetworks();
+        }
         getHolder().scheduleNetworkUpdate(PipeMessageReceiver.BEHAVIOUR);
     }
 
+    /** Invalidates every cached item, fluid and power network that this pipe is in, as its connections have
+     * changed. */
+    private void invalidateNetworks() {
+        World world = holder.getPipeWorld();
+        BlockPos pos = holder.getPipePos();
+        PipeNetworkGraph.invalidate(world, pos);
+        FluidSegmentSolver.invalidate(world, pos);
+        PowerNetworkSolver.invalidate(world, pos);
+    }
+
     public void addDrops(List<ItemStack> toDrop, int fortune) {
         Item item = (Item) PipeApi.pipeRegistry.getItemForPipe(definition);
         if (item != null) {
@@ -319,6 +339,9 @@ public final class Pipe implements IPipe, IDebuggable {
     @Override
     public void markForUpdate() {
         updateMarked = true;
+        if (flow instanceof ISleepableFlow) {
+            ((ISleepableFlow) flow).wakeUp();
+        }
     }
 
     @SideOnly(Side.CLIENT)
@@ -6,19 +6,29 @@
 
 package buildcraft.transport.pipe;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 import buildcraft.api.core.BCDebugging;
+import buildcraft.api.core.BCLog;
 import buildcraft.api.transport.pipe.PipeEvent;
 import buildcraft.api.transport.pipe.PipeEventHandler;
 import buildcraft.api.transport.pipe.PipeEventPriority;
@@ -26,10 +36,29 @@ import buildcraft.api.transport.pipe.PipeEventPriority;
 public class PipeEventBus {
     public static final boolean DEBUG = BCDebugging.shouldDebugLog("transport.pipe.event_bus");
 
+    /** If true then handlers will be called through classes generated by {@link LambdaMetafactory} rather than
+     * through {@link MethodHandle#invoke}. Handlers that can't be generated for will always use the method handle. */
+    public static boolean useGeneratedInvokers = !Boolean.getBoolean("buildcraft.transport.pipe_event_bus.no_lambda");
+
     private static final Map<Class<?>, List<Handler>> allHandlers = new HashMap<>();
 
+    /** Maps the (sorted) list of registered handlers to the indices of the handlers that each event class should be
+     * sent to. As every pipe with the same definition and pluggables registers the same handlers in the same order
+     * this only has to be worked out once for each combination. The tables are only weakly held (each bus holds its
+     * own table strongly), so combinations that no loaded pipe uses any more are dropped. */
+    private static final LoadingCache<List<Handler>, Map<Class<?>, int[]>> sharedDispatchTables =
+        CacheBuilder.newBuilder().weakValues().build(CacheLoader.from(key -> new ConcurrentHashMap<>()));
+
+    private static final LocalHandler[] NO_HANDLERS = new LocalHandler[0];
+
     private final List<LocalHandler> currentHandlers = new ArrayList<>();
 
+    /** The shared dispatch table for {@link #currentHandlers}, or null if it needs to be looked up again. */
+    private Map<Class<?>, int[]> dispatchTable;
+
+    /** The handlers that each event class is sent to, taken from {@link #dispatchTable}. */
+    private final Map<Class<?>, LocalHandler[]> dispatchCache = new IdentityHashMap<>();
+
     private static List<LocalHandler> getAndBindHandlers(Object obj) {
         Class<?> cls = obj instanceof Class ? (Class<?>) obj : obj.getClass();
 
@@ -88,8 +117,15 @@ public class PipeEventBus {
         if (obj == null) {
             return;
         }
-        currentHandlers.addAll(getAndBindHandlers(obj));
-        Collections.sort(currentHandlers);
+        for (LocalHandler handler : getAndBindHandlers(obj)) {
+            // Insert after every handler of the same priority so that the order stays the same as a stable sort
+            int index = currentHandlers.size();
+            while (index > 0 && currentHandlers.get(index - 1).compareTo(handler) > 0) {
+                index--;
+            }
+            currentHandlers.add(index, handler);
+        }
+        invalidateDispatch();
     }
 
     public void unregisterHandler(Object obj) {
@@ -97,7 +133,49 @@ public class PipeEventBus {
             return;
         }
 
-        currentHandlers.removeIf(next -> next.target == obj);
+        if (currentHandlers.removeIf(next -> next.target == obj)) {
+            invalidateDispatch();
+        }
+    }
+
+    private void invalidateDispatch() {
+        dispatchTable = null;
+        dispatchCache.clear();
+    }
+
+    private LocalHandler[] getHandlersFor(Class<?> eventClass) {
+        LocalHandler[] handlers = dispatchCache.get(eventClass);
+        if (handlers == null) {
+            if (dispatchTable == null) {
+                List<Handler> key = new ArrayList<>(currentHandlers.size());
+                for (LocalHandler handler : currentHandlers) {
+                    key.add(handler.handler);
+                }
+                dispatchTable = sharedDispatchTables.getUnchecked(key);
+            }
+            int[] indices = dispatchTable.computeIfAbsent(eventClass, this::computeIndices);
+            if (indices.length == 0) {
+                handlers = NO_HANDLERS;
+            } else {
+                handlers = new LocalHandler[indices.length];
+                for (int i = 0; i < indices.length; i++) {
+                    handlers[i] = currentHandlers.get(indices[i]);
+                }
+            }
+            dispatchCache.put(eventClass, handlers);
+        }
+        return handlers;
+    }
+
+    private int[] computeIndices(Class<?> eventClass) {
+        int[] indices = new int[currentHandlers.size()];
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (currentHandlers.get(i).classHandled.isAssignableFrom(eventClass)) {
+                indices[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
     }
 
     /** Sends this event to all of the registered handlers.
@@ -112,8 +190,8 @@ public class PipeEventBus {
                     + "(error = " + error + ")");
             }
         }
-        for (LocalHandler handler : currentHandlers) {
-            handled |= handler.handleEvent(event);
+        for (LocalHandler handler : getHandlersFor(event.getClass())) {
+            handled |= handler.dispatch(event);
             if (DEBUG) {
                 String error = event.checkStateForErrors();
                 if (error != null) {
@@ -132,6 +210,12 @@ public class PipeEventBus {
         final MethodHandle handle;
         final Class<?> eventClassHandled;
 
+        /** Creates the {@link Consumer} that calls this handler: takes the target as an argument unless this is a
+         * static handler. Null if it hasn't been created yet or couldn't be. */
+        private MethodHandle invokerFactory;
+        private boolean invokerFactoryFailed;
+        private Consumer<PipeEvent> staticInvoker;
+
         public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, String methodName, MethodHandle handle, Class<?> eventClassHandled) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
@@ -147,41 +231,87 @@ public class PipeEventBus {
                 return null;
             }
             MethodHandle bound = isStatic ? handle : handle.bindTo(obj);
-            return new LocalHandler(priority, receiveCanceled, obj, methodName, eventClassHandled, bound);
+            return new LocalHandler(this, obj, bound, createInvoker(obj));
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized Consumer<PipeEvent> createInvoker(Object obj) {
+            if (!useGeneratedInvokers || invokerFactoryFailed) {
+                return null;
+            }
+            try {
+                if (invokerFactory == null) {
+                    MethodType implType = handle.type();
+                    MethodType invokedType = isStatic ? MethodType.methodType(Consumer.class)
+                        : MethodType.methodType(Consumer.class, implType.parameterType(0));
+                    MethodType instantiatedType = MethodType.methodType(void.class, eventClassHandled);
+                    CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "accept", invokedType,
+                        MethodType.methodType(void.class, Object.class), handle, instantiatedType);
+                    invokerFactory = site.getTarget();
+                }
+                if (isStatic) {
+                    if (staticInvoker == null) {
+                        staticInvoker = (Consumer<PipeEvent>) invokerFactory.invoke();
+                    }
+                    return staticInvoker;
+                }
+                return (Consumer<PipeEvent>) invokerFactory.invoke(obj);
+            } catch (Throwable t) {
+                // Fall back to using the method handle directly
+                invokerFactoryFailed = true;
+                if (DEBUG) {
+                    BCLog.logger.warn("[transport.pipe.event_bus] Unable to generate an invoker for " + methodName
+                        + ", using a method handle instead", t);
+                }
+                return null;
+            }
         }
     }
 
     public static class LocalHandler implements Comparable<LocalHandler> {
+        final Handler handler;
         final PipeEventPriority priority;
         final boolean receiveCanceled;
         final Object target;
         final String methodName;
         final Class<?> classHandled;
         final MethodHandle handle;
+        /** A generated invoker for this handler, or null if {@link #handle} should be used instead. */
+        final Consumer<PipeEvent> invoker;
 
-        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, String methodName, Class<?> classHandled, MethodHandle handle) {
-            this.priority = priority;
-            this.receiveCanceled = receiveCanceled;
+        public LocalHandler(Handler handler, Object target, MethodHandle handle, Consumer<PipeEvent> invoker) {
+            this.handler = handler;
+            this.priority = handler.priority;
+            this.receiveCanceled = handler.receiveCanceled;
             this.target = target;
-            this.methodName = methodName;
-            this.classHandled = classHandled;
+            this.methodName = handler.methodName;
+            this.classHandled = handler.eventClassHandled;
             this.handle = handle;
+            this.invoker = invoker;
         }
 
         public boolean handleEvent(PipeEvent event) {
+            if (classHandled.isAssignableFrom(event.getClass())) {
+                return dispatch(event);
+            }
+            return false;
+        }
+
+        /** Like {@link #handleEvent(PipeEvent)}, but assumes that the event is of the type that this handles. */
+        boolean dispatch(PipeEvent event) {
             if (!receiveCanceled && event.isCanceled()) {
                 return false;
             }
-
-            if (classHandled.isAssignableFrom(event.getClass())) {
-                try {
+            try {
+                if (invoker != null) {
+                    invoker.accept(event);
+                } else {
                     handle.invoke(event);
-                    return true;
-                } catch (Throwable e) {
-                    throw new IllegalStateException(e);
                 }
+                return true;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
             }
-            return false;
         }
 
         @Override
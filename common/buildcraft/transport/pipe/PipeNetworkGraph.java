@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.google.common.collect.ImmutableSet;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import buildcraft.api.transport.pipe.IPipe;
+import buildcraft.api.transport.pipe.IPipe.ConnectedType;
+import buildcraft.api.transport.pipe.IPipeHolder;
+import buildcraft.api.transport.pipe.PipeBehaviour;
+
+import buildcraft.transport.pipe.behaviour.PipeBehaviourClay;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourCobble;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourDaizuli;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourDiamondItem;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourGold;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourIron;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourLapis;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourQuartz;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourSandstone;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourStone;
+import buildcraft.transport.pipe.flow.PipeFlowItems;
+
+/** An optional, lazily built graph of the item pipe networks in a world. Each {@link Network} is a connected set of
+ * item pipes, and stays valid until any pipe in (or next to) it changes its connections or is removed. This lets
+ * per-pipe routing decisions be cached for as long as the network they were made in is still valid. Changes to a
+ * single pipe's behaviour or pluggables only drop that pipe's own cached routes, as they can't change which pipes are
+ * connected or which are sinks without its connections changing too.
+ * <p>
+ * When a network is built it also works out which sides of each pipe lead into "dead ends": branches that contain no
+ * inventories or other item sinks (such as void or stripes pipes), and which would only bounce items back. */
+public final class PipeNetworkGraph {
+    private static final Map<World, PipeNetworkGraph> GRAPHS = new WeakHashMap<>();
+
+    /** Behaviours that never consume items themselves. Pipes with any other behaviour are assumed to be able to, as
+     * addons may add pipes that act like void pipes. */
+    private static final Set<Class<? extends PipeBehaviour>> PASS_THROUGH_BEHAVIOURS = ImmutableSet.of(
+        PipeBehaviourStone.class, PipeBehaviourCobble.class, PipeBehaviourQuartz.class,
+        PipeBehaviourSandstone.class, PipeBehaviourGold.class, PipeBehaviourClay.class, PipeBehaviourIron.class,
+        PipeBehaviourDiamondItem.class, PipeBehaviourLapis.class, PipeBehaviourDaizuli.class);
+
+    private final Map<BlockPos, Network> networks = new HashMap<>();
+
+    public static PipeNetworkGraph get(World world) {
+        PipeNetworkGraph graph = GRAPHS.get(world);
+        if (graph == null) {
+            graph = new PipeNetworkGraph();
+            GRAPHS.put(world, graph);
+        }
+        return graph;
+    }
+
+    public static void onWorldUnload(World world) {
+        GRAPHS.remove(world);
+    }
+
+    /** Invalidates every network that the given position (or any of its neighbours) is in. Called whenever a pipe
+     * changes its connections or is removed. */
+    public static void invalidate(World world, BlockPos pos) {
+        PipeNetworkGraph graph = GRAPHS.get(world);
+        if (graph != null) {
+            graph.invalidateAt(pos);
+            for (EnumFacing face : EnumFacing.VALUES) {
+                graph.invalidateAt(pos.offset(face));
+            }
+        }
+    }
+
+    private void invalidateAt(BlockPos pos) {
+        Network network = networks.remove(pos);
+        if (network != null && network.valid) {
+            network.valid = false;
+            for (BlockPos member : network.nodes.keySet()) {
+                networks.remove(member);
+            }
+        }
+    }
+
+    /** @return The (valid) network that the given item pipe is in. */
+    public Network getNetwork(IPipeHolder holder) {
+        BlockPos pos = holder.getPipePos();
+        Network network = networks.get(pos);
+        if (network == null || !network.valid) {
+            network = buildNetwork(holder);
+            for (BlockPos member : network.nodes.keySet()) {
+                networks.put(member, network);
+            }
+        }
+        return network;
+    }
+
+    private static Network buildNetwork(IPipeHolder start) {
+        Network network = new Network();
+        Deque<IPipeHolder> open = new ArrayDeque<>();
+        open.add(start);
+        network.nodes.put(start.getPipePos(), new Node());
+        while (!open.isEmpty()) {
+            IPipeHolder holder = open.poll();
+            Node node = network.nodes.get(holder.getPipePos());
+            IPipe pipe = holder.getPipe();
+            if (pipe == null) {
+                continue;
+            }
+            node.sink = !PASS_THROUGH_BEHAVIOURS.contains(pipe.getBehaviour().getClass());
+            for (EnumFacing face : EnumFacing.VALUES) {
+                if (!pipe.isConnected(face)) {
+                    continue;
+                }
+                ConnectedType type = pipe.getConnectedType(face);
+                if (type == ConnectedType.TILE) {
+                    node.sink = true;
+                } else if (type == ConnectedType.PIPE) {
+                    IPipe oPipe = pipe.getConnectedPipe(face);
+                    if (oPipe == null || !(oPipe.getFlow() instanceof PipeFlowItems)) {
+                        continue;
+                    }
+                    node.pipeSides |= 1 << face.ordinal();
+                    IPipeHolder oHolder = oPipe.getHolder();
+                    BlockPos oPos = oHolder.getPipePos();
+                    if (!network.nodes.containsKey(oPos)) {
+                        network.nodes.put(oPos, new Node());
+                        open.add(oHolder);
+                    }
+                }
+            }
+        }
+        network.computeDeadEnds();
+        return network;
+    }
+
+    public static final class Network {
+        private final Map<BlockPos, Node> nodes = new HashMap<>();
+        private boolean valid = true;
+
+        /** @return False if any pipe in this network has changed since it was built. */
+        public boolean isValid() {
+            return valid;
+        }
+
+        public int getPipeCount() {
+            return nodes.size();
+        }
+
+        /** @return True if items sent out of the given pipe on the given side can never reach an inventory or other
+         *         item sink, and so will only ever bounce back. */
+        public boolean isDeadEnd(BlockPos pos, EnumFacing side) {
+            Node node = nodes.get(pos);
+            return node != null && (node.deadSides & (1 << side.ordinal())) != 0;
+        }
+
+        /** Repeatedly peels off every pipe that isn't a sink and only has one remaining connection, marking the
+         * side of the pipe it was connected to as a dead end. Branches that contain a sink or a loop are left
+         * alone. */
+        private void computeDeadEnds() {
+            Map<BlockPos, Integer> degree = new HashMap<>();
+            Deque<BlockPos> leaves = new ArrayDeque<>();
+            for (Map.Entry<BlockPos, Node> entry : nodes.entrySet()) {
+                int d = Integer.bitCount(entry.getValue().pipeSides);
+                degree.put(entry.getKey(), d);
+                if (d <= 1 && !entry.getValue().sink) {
+                    leaves.add(entry.getKey());
+                }
+            }
+            while (!leaves.isEmpty()) {
+                BlockPos pos = leaves.poll();
+                Node node = nodes.get(pos);
+                node.removed = true;
+                for (EnumFacing face : EnumFacing.VALUES) {
+                    if ((node.pipeSides & (1 << face.ordinal())) == 0) {
+                        continue;
+                    }
+                    BlockPos oPos = pos.offset(face);
+                    Node other = nodes.get(oPos);
+                    if (other == null || other.removed) {
+                        continue;
+                    }
+                    other.deadSides |= 1 << face.getOpposite().ordinal();
+                    int d = degree.get(oPos) - 1;
+                    degree.put(oPos, d);
+                    if (d == 1 && !other.sink) {
+                        leaves.add(oPos);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Node {
+        /** Bitmask of the sides that connect to other pipes in the same network. */
+        int pipeSides;
+        /** Bitmask of the sides that lead only into dead ends. */
+        int deadSides;
+        /** True if this pipe is connected to an inventory or might consume items itself. */
+        boolean sink;
+        boolean removed;
+    }
+}
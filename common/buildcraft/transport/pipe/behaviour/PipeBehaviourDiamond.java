@@ -7,9 +7,13 @@
 package buildcraft.transport.pipe.behaviour;
 
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.world.World;
+
+import net.minecraftforge.items.IItemHandlerModifiable;
 
 import buildcraft.api.core.EnumPipePart;
 import buildcraft.api.transport.pipe.IPipe;
@@ -18,12 +22,13 @@ import buildcraft.api.transport.pipe.PipeBehaviour;
 import buildcraft.lib.tile.item.ItemHandlerSimple;
 
 import buildcraft.transport.BCTransportGuis;
+import buildcraft.transport.pipe.flow.PipeFlowItems;
 
 public abstract class PipeBehaviourDiamond extends PipeBehaviour {
 
     public static final int FILTERS_PER_SIDE = 9;
 
-    public final ItemHandlerSimple filters = new ItemHandlerSimple(FILTERS_PER_SIDE * 6, null);
+    public final ItemHandlerSimple filters = new ItemHandlerSimple(FILTERS_PER_SIDE * 6, this::onFilterChange);
 
     public PipeBehaviourDiamond(IPipe pipe) {
         super(pipe);
@@ -41,6 +46,14 @@ public abstract class PipeBehaviourDiamond extends PipeBehaviour {
         return nbt;
     }
 
+    private void onFilterChange(IItemHandlerModifiable handler, int slot, ItemStack before, ItemStack after) {
+        World world = pipe.getHolder().getPipeWorld();
+        if (world != null && !world.isRemote && pipe.getFlow() instanceof PipeFlowItems) {
+            // Any routes cached with the old filters are no longer correct
+            ((PipeFlowItems) pipe.getFlow()).invalidateRouteCache();
+        }
+    }
+
     @Override
     public int getTextureIndex(EnumFacing face) {
         return face == null ? 0 : face.ordinal() + 1;
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.List;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+
+import buildcraft.api.transport.pipe.IPipe;
+import buildcraft.api.transport.pipe.IPipeHolder;
+
+/** Counts the {@link ISleepableFlow}'s in a world for the debugger. This is only worked out when asked for, so it
+ * doesn't have to be kept up to date as pipes are placed, loaded and removed. */
+public final class FlowSleepStats {
+    private FlowSleepStats() {}
+
+    public static void addDebugInfo(World world, List<String> left) {
+        int sleeping = 0, awake = 0;
+        for (TileEntity tile : world.loadedTileEntityList) {
+            if (!(tile instanceof IPipeHolder)) {
+                continue;
+            }
+            IPipe pipe = ((IPipeHolder) tile).getPipe();
+            if (pipe != null && pipe.getFlow() instanceof ISleepableFlow) {
+                if (((ISleepableFlow) pipe.getFlow()).isSleeping()) {
+                    sleeping++;
+                } else {
+                    awake++;
+                }
+            }
+        }
+        left.add(" - World pipes: " + sleeping + " sleeping, " + awake + " awake");
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.google.common.collect.ImmutableSet;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import net.minecraftforge.fluids.FluidStack;
+
+import buildcraft.api.transport.pipe.IPipe;
+import buildcraft.api.transport.pipe.IPipe.ConnectedType;
+import buildcraft.api.transport.pipe.PipeBehaviour;
+
+import buildcraft.transport.BCTransportConfig;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourCobble;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourGold;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourQuartz;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourSandstone;
+import buildcraft.transport.pipe.behaviour.PipeBehaviourStone;
+
+/** An alternative to the per-pipe fluid movement in {@link PipeFlowFluids}, enabled by
+ * {@link BCTransportConfig#fluidNetworkSolver}. Connected fluid pipes that don't do anything special with their fluid
+ * are grouped into a {@link Segment}, which is moved all at once, once per tick (by whichever pipe in it ticks first).
+ * Every other pipe (wooden, iron, diamond, void etc) and every tile is a boundary of the segment, and is filled from
+ * (or fills) the segment in the same way as it would fill a normal pipe.
+ * <p>
+ * Fluid only moves between neighbouring pipes, and by at most their transfer rate per tick in total, but it is moved
+ * in up to {@link #MAX_PASSES} passes each tick, so it can cross several pipes in one tick without any connection
+ * carrying more than it could on its own. Each pipe's new amount is then spread over its sections, so rendering,
+ * saving and network syncing work in exactly the same way as before. */
+public final class FluidSegmentSolver {
+    private static final Map<World, FluidSegmentSolver> SOLVERS = new WeakHashMap<>();
+    /** The most times that fluid is moved between every pair of neighbouring pipes in a segment per tick. Each pass
+     * lets fluid get one pipe further, but beyond this few enough pipes are still unequal that it isn't worth it. */
+    private static final int MAX_PASSES = 16;
+
+    /** Behaviours that never look at the fluid that passes through them. Pipes with any other behaviour always tick on
+     * their own. */
+    private static final Set<Class<? extends PipeBehaviour>> SIMPLE_BEHAVIOURS = ImmutableSet.of(
+        PipeBehaviourStone.class, PipeBehaviourCobble.class, PipeBehaviourQuartz.class, PipeBehaviourGold.class,
+        PipeBehaviourSandstone.class);
+
+    private final Map<BlockPos, Segment> segments = new HashMap<>();
+
+    public static void onWorldUnload(World world) {
+        SOLVERS.remove(world);
+    }
+
+    /** Invalidates every segment that the given position (or any of its neighbours) is in. Called whenever a pipe
+     * changes its connections or is removed. */
+    public static void invalidate(World world, BlockPos pos) {
+        FluidSegmentSolver solver = SOLVERS.get(world);
+        if (solver != null) {
+            solver.invalidateAt(pos);
+            for (EnumFacing face : EnumFacing.VALUES) {
+                solver.invalidateAt(pos.offset(face));
+            }
+        }
+    }
+
+    private void invalidateAt(BlockPos pos) {
+        Segment segment = segments.remove(pos);
+        if (segment != null && segment.valid) {
+            segment.valid = false;
+            for (PipeFlowFluids flow : segment.flows) {
+                segments.remove(flow.pipe.getHolder().getPipePos());
+            }
+        }
+    }
+
+    /** Moves the fluid in the segment that the given flow is in, if this hasn't already been done this tick.
+     *
+     * @return True if the given flow has been ticked as part of a segment, false if it should tick on its own. */
+    static boolean tick(PipeFlowFluids flow) {
+        if (!SIMPLE_BEHAVIOURS.contains(flow.pipe.getBehaviour().getClass())) {
+            return false;
+        }
+        World world = flow.pipe.getHolder().getPipeWorld();
+        FluidSegmentSolver solver = SOLVERS.get(world);
+        if (solver == null) {
+            solver = new FluidSegmentSolver();
+            SOLVERS.put(world, solver);
+        }
+        Segment segment = solver.getSegment(flow);
+        if (segment == null) {
+            return false;
+        }
+        long now = world.getTotalWorldTime();
+        if (segment.lastTick != now) {
+            segment.lastTick = now;
+            segment.solved = segment.solve();
+        }
+        return segment.solved;
+    }
+
+    /** @return The segment that the given flow is in, or null if it isn't connected to any other simple pipes. */
+    private Segment getSegment(PipeFlowFluids flow) {
+        Segment segment = flow.segment;
+        if (segment == null || !segment.valid) {
+            segment = buildSegment(flow);
+            for (PipeFlowFluids member : segment.flows) {
+                member.segment = segment;
+                segments.put(member.pipe.getHolder().getPipePos(), segment);
+            }
+        }
+        return segment.flows.size() < 2 ? null : segment;
+    }
+
+    private static Segment buildSegment(PipeFlowFluids start) {
+        Map<PipeFlowFluids, Integer> indices = new HashMap<>();
+        List<PipeFlowFluids> flows = new ArrayList<>();
+        Deque<PipeFlowFluids> open = new ArrayDeque<>();
+        indices.put(start, 0);
+        flows.add(start);
+        open.add(start);
+        while (!open.isEmpty()) {
+            PipeFlowFluids flow = open.poll();
+            for (EnumFacing face : EnumFacing.VALUES) {
+                PipeFlowFluids other = getMemberFlow(flow.pipe, face);
+                if (other != null && !indices.containsKey(other)) {
+                    indices.put(other, flows.size());
+                    flows.add(other);
+                    open.add(other);
+                }
+            }
+        }
+
+        Segment segment = new Segment(flows);
+        for (int i = 0; i < flows.size(); i++) {
+            IPipe pipe = flows.get(i).pipe;
+            for (EnumFacing face : EnumFacing.VALUES) {
+                if (!pipe.isConnected(face)) {
+                    continue;
+                }
+                segment.connectedSides[i] |= 1 << face.ordinal();
+                PipeFlowFluids other = getMemberFlow(pipe, face);
+                if (other == null) {
+                    segment.externalSides[i] |= 1 << face.ordinal();
+                } else {
+                    int j = indices.get(other);
+                    // Only store each edge once
+                    if (i < j) {
+                        segment.edges.add(new int[] { i, j, face.ordinal() });
+                    }
+                }
+            }
+        }
+        return segment;
+    }
+
+    private static PipeFlowFluids getMemberFlow(IPipe pipe, EnumFacing face) {
+        if (!pipe.isConnected(face) || pipe.getConnectedType(face) != ConnectedType.PIPE) {
+            return null;
+        }
+        IPipe oPipe = pipe.getConnectedPipe(face);
+        if (oPipe == null || !(oPipe.getFlow() instanceof PipeFlowFluids)) {
+            return null;
+        }
+        if (!SIMPLE_BEHAVIOURS.contains(oPipe.getBehaviour().getClass())) {
+            return null;
+        }
+        return (PipeFlowFluids) oPipe.getFlow();
+    }
+
+    static final class Segment {
+        final List<PipeFlowFluids> flows;
+        /** Bitmask of every connected side of each pipe. */
+        final int[] connectedSides;
+        /** Bitmask of the sides of each pipe that lead out of this segment, to tiles or to other pipes. */
+        final int[] externalSides;
+        /** Every connection between two pipes in this segment, as [from index, to index, face from the first]. */
+        final List<int[]> edges = new ArrayList<>();
+        boolean valid = true;
+        long lastTick = Long.MIN_VALUE;
+        boolean solved;
+
+        Segment(List<PipeFlowFluids> flows) {
+            this.flows = flows;
+            this.connectedSides = new int[flows.size()];
+            this.externalSides = new int[flows.size()];
+        }
+
+        /** @return The number of connections that the given pipe has to other pipes in this segment. */
+        private int getInternalCount(int index) {
+            return Math.max(1, Integer.bitCount(connectedSides[index] & ~externalSides[index]));
+        }
+
+        /** Moves fluid from fuller pipes to emptier neighbours, by at most the remaining budget of each connection.
+         * Every move is worked out from the amounts at the start of this pass, and each pipe's share of its own fluid
+         * (or free space) is split between its connections, so the order of the edges doesn't matter and no pipe can
+         * go below empty or above full.
+         *
+         * @return True if any fluid was moved. */
+        private boolean relax(int[] amounts, int[] capacities, int[] budgets, int[] moves, boolean showFlow) {
+            boolean moved = false;
+            for (int e = 0; e < moves.length; e++) {
+                int[] edge = edges.get(e);
+                int i = edge[0], j = edge[1];
+                moves[e] = 0;
+                long cmp = (long) amounts[i] * capacities[j] - (long) amounts[j] * capacities[i];
+                if (cmp == 0) {
+                    continue;
+                }
+                if (showFlow) {
+                    // Show fluid flowing from fuller pipes to emptier ones
+                    EnumFacing face = EnumFacing.VALUES[edge[2]];
+                    flows.get(i).setSegmentFlowDirection(face, cmp > 0);
+                    flows.get(j).setSegmentFlowDirection(face.getOpposite(), cmp < 0);
+                }
+                int from = cmp > 0 ? i : j;
+                int to = cmp > 0 ? j : i;
+                // The amount that would leave both pipes equally full
+                long equal = Math.abs(cmp) / (capacities[i] + capacities[j]);
+                long move = Math.min(equal, budgets[e]);
+                move = Math.min(move, amounts[from] / getInternalCount(from));
+                move = Math.min(move, Math.max(0, capacities[to] - amounts[to]) / getInternalCount(to));
+                if (move > 0) {
+                    moves[e] = (int) (cmp > 0 ? move : -move);
+                    budgets[e] -= move;
+                    moved = true;
+                }
+            }
+            for (int e = 0; e < moves.length; e++) {
+                int[] edge = edges.get(e);
+                amounts[edge[0]] -= moves[e];
+                amounts[edge[1]] += moves[e];
+            }
+            return moved;
+        }
+
+        /** @return False if this segment couldn't be moved as one (because it contains more than one fluid), so every
+         *         pipe should tick on its own instead. */
+        boolean solve() {
+            FluidStack fluid = null;
+            for (PipeFlowFluids flow : flows) {
+                if (flow.pipe.getHolder().getPipe() != flow.pipe) {
+                    // Not been invalidated yet, but will be soon
+                    valid = false;
+                    return false;
+                }
+                FluidStack current = flow.getCurrentFluid();
+                if (current == null) {
+                    continue;
+                }
+                if (fluid == null) {
+                    fluid = current;
+                } else if (!fluid.isFluidEqual(current)) {
+                    return false;
+                }
+            }
+            if (fluid == null) {
+                // Nothing to move
+                return true;
+            }
+
+            int count = flows.size();
+            int[] amounts = new int[count];
+            int[] capacities = new int[count];
+            for (int i = 0; i < count; i++) {
+                PipeFlowFluids flow = flows.get(i);
+                amounts[i] = flow.getTotalAmount();
+                capacities[i] = flow.capacity * (1 + Integer.bitCount(connectedSides[i]));
+            }
+
+            // Output into everything outside of this segment, but only from the pipes next to it
+            for (int i = 0; i < count; i++) {
+                if (externalSides[i] != 0 && amounts[i] > 0) {
+                    amounts[i] -= flows.get(i).moveOutOfSegment(fluid, externalSides[i], amounts[i]);
+                }
+            }
+
+            // Move fluid from fuller pipes to emptier neighbours in several passes, so that it can cross more than
+            // one pipe per tick. Each connection can only carry its transfer rate per tick in total (over every
+            // pass), so this doesn't move any more fluid through a pipe than ticking the pipes on their own would.
+            int[] budgets = new int[edges.size()];
+            for (int e = 0; e < budgets.length; e++) {
+                int[] edge = edges.get(e);
+                int rateFrom = flows.get(edge[0]).getTransferPerTick();
+                budgets[e] = Math.min(rateFrom, flows.get(edge[1]).getTransferPerTick());
+            }
+            int[] moves = new int[edges.size()];
+            for (int pass = 0; pass < MAX_PASSES; pass++) {
+                if (!relax(amounts, capacities, budgets, moves, pass == 0)) {
+                    break;
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                flows.get(i).setSegmentAmount(amounts[i] == 0 ? null : fluid, amounts[i], connectedSides[i]);
+            }
+            return true;
+        }
+    }
+}
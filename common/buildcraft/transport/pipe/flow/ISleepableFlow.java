@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+/** A flow that stops ticking while it has nothing to do. A sleeping flow is not ticked by its
+ * {@link buildcraft.transport.pipe.Pipe} until something wakes it up again: either the flow itself (when it is given
+ * something to move) or the pipe (when its neighbours change). */
+public interface ISleepableFlow {
+    boolean isSleeping();
+
+    void wakeUp();
+}
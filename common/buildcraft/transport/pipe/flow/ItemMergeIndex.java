@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import net.minecraft.item.EnumDyeColor;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+
+/** An index of every {@link TravellingItem} in a {@link PipeFlowItems} that could be merged with, so that
+ * {@link PipeFlowItems#addItemTryMerge(TravellingItem)} only has to test the items that
+ * {@link TravellingItem#canMerge(TravellingItem)} could possibly accept rather than every item in the pipe. */
+final class ItemMergeIndex {
+    /** The size (in ticks) of each {@link TravellingItem#getTickFinished()} window. This is the same as the maximum
+     * difference allowed by {@link TravellingItem#canMerge(TravellingItem)}, so only the adjacent windows need to be
+     * searched. */
+    static final int WINDOW = 10;
+
+    private final Map<Key, List<TravellingItem>> index = new HashMap<>();
+    private long attempts, hits;
+
+    void add(TravellingItem item) {
+        if (item.isPhantom() || item.stack == null) {
+            return;
+        }
+        Key key = new Key(item, item.getTickFinished() / WINDOW);
+        index.computeIfAbsent(key, k -> new ArrayList<>(2)).add(item);
+    }
+
+    /** Removes the given item, if it was indexed. Nothing that the key depends on changes while an item is in a pipe,
+     * so the key is worked out again rather than being stored in every item. */
+    void remove(TravellingItem item) {
+        if (item.isPhantom() || item.stack == null) {
+            return;
+        }
+        Key key = new Key(item, item.getTickFinished() / WINDOW);
+        List<TravellingItem> list = index.get(key);
+        if (list != null && list.remove(item)) {
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+            return;
+        }
+        // Something changed the stack's tag while it was travelling, so it could be in any list
+        for (Iterator<List<TravellingItem>> iter = index.values().iterator(); iter.hasNext();) {
+            List<TravellingItem> other = iter.next();
+            if (other.remove(item)) {
+                if (other.isEmpty()) {
+                    iter.remove();
+                }
+                return;
+            }
+        }
+    }
+
+    void clear() {
+        index.clear();
+    }
+
+    /** Attempts to merge the given item into one that is already indexed.
+     *
+     * @return True if the item was merged, and so shouldn't be added to the pipe. */
+    boolean tryMerge(TravellingItem item) {
+        if (item.isPhantom() || item.stack == null) {
+            return false;
+        }
+        attempts++;
+        long window = item.getTickFinished() / WINDOW;
+        // One probe key for all three windows
+        Key probe = new Key(item, window);
+        if (tryMerge(probe, item)) {
+            return true;
+        }
+        probe.setWindow(window - 1);
+        if (tryMerge(probe, item)) {
+            return true;
+        }
+        probe.setWindow(window + 1);
+        return tryMerge(probe, item);
+    }
+
+    private boolean tryMerge(Key key, TravellingItem item) {
+        List<TravellingItem> list = index.get(key);
+        if (list == null) {
+            return false;
+        }
+        for (TravellingItem existing : list) {
+            if (existing.mergeWith(item)) {
+                hits++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long getAttempts() {
+        return attempts;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    /** Everything that {@link TravellingItem#canMerge(TravellingItem)} compares, apart from the exact NBT. Only a
+     * hash of the stack's tag is stored (rather than a copy of the stack) so keys are cheap to create and compare.
+     * Different tags with equal hashes just end up in the same list, where {@link TravellingItem#mergeWith} still
+     * does the full check. */
+    static final class Key {
+        final EnumFacing side;
+        final boolean toCenter;
+        final EnumDyeColor colour;
+        final Item item;
+        final int damage;
+        final int tagHash;
+        /** Only changed on probe keys (by {@link #setWindow(long)}), which are never stored in the index. */
+        private long window;
+        private int hash;
+
+        Key(TravellingItem item, long window) {
+            ItemStack stack = item.stack;
+            NBTTagCompound tag = stack.getTagCompound();
+            this.side = item.getSide();
+            this.toCenter = item.isToCenter();
+            this.colour = item.getColour();
+            this.item = stack.getItem();
+            this.damage = stack.getItemDamage();
+            this.tagHash = tag == null ? 0 : tag.hashCode();
+            setWindow(window);
+        }
+
+        void setWindow(long window) {
+            this.window = window;
+            int h = Objects.hashCode(side);
+            h = h * 31 + (toCenter ? 1 : 0);
+            h = h * 31 + Objects.hashCode(colour);
+            h = h * 31 + Objects.hashCode(item);
+            h = h * 31 + damage;
+            h = h * 31 + tagHash;
+            this.hash = h * 31 + Long.hashCode(window);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null || obj.getClass() != getClass()) return false;
+            Key other = (Key) obj;
+            return hash == other.hash//
+                && side == other.side//
+                && toCenter == other.toCenter//
+                && colour == other.colour//
+                && item == other.item//
+                && damage == other.damage//
+                && tagHash == other.tagHash//
+                && window == other.window;
+        }
+    }
+}
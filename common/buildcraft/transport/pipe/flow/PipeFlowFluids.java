@@ -64,7 +64,9 @@ import buildcraft.lib.net.cache.NetworkedObjectCache;
 import buildcraft.core.BCCoreConfig;
 import buildcraft.core.BCCoreItems;
 
-public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable {
+import buildcraft.transport.BCTransportConfig;
+
+public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable, ISleepableFlow {
 
     private static final int DIRECTION_COOLDOWN = 60;
     private static final int COOLDOWN_INPUT = -DIRECTION_COOLDOWN;
@@ -91,6 +93,12 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     private int currentDelay;
     private final SafeTimeTracker tracker = new SafeTimeTracker(BCCoreConfig.networkUpdateRate, 4);
 
+    /** True if this is empty, and so doesn't need to tick until something is inserted. Only used on the server. */
+    private boolean sleeping = false;
+
+    /** The segment that this is in, if {@link BCTransportConfig#fluidNetworkSolver} is enabled. */
+    FluidSegmentSolver.Segment segment;
+
     // Client fields for interpolating amounts
     private long lastMessage, lastMessageMinus1;
     private NetworkedObjectCache<FluidStack>.Link clientFluid = null;
@@ -275,6 +283,9 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         if (currentFluid != null && !currentFluid.isFluidEqual(fluid)) {
             return 0;
         }
+        if (!simulate) {
+            wakeUp();
+        }
         if (currentFluid == null && !simulate) {
             setFluid(fluid.copy());
         }
@@ -330,6 +341,13 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
         FluidStack fluid = isRemote ? getFluidStackForRender() : currentFluid;
         left.add(" - FluidType = " + (fluid == null ? "empty" : fluid.getLocalizedName()));
+        if (!isRemote) {
+            left.add(" - Sleeping = " + sleeping);
+            FlowSleepStats.addDebugInfo(pipe.getHolder().getPipeWorld(), left);
+        }
+        if (!isRemote && segment != null && segment.valid && segment.flows.size() > 1) {
+            left.add(" - Segment = " + segment.flows.size() + " pipes");
+        }
 
         for (EnumPipePart part : EnumPipePart.VALUES) {
             Section section = sections.get(part);
@@ -403,11 +421,11 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     private void setFluid(FluidStack fluid) {
         currentFluid = fluid;
         if (fluid != null) {
-            currentDelay = (int) PipeApi.getFluidTransferInfo(pipe.getDefinition()).transferDelayMultiplier;
-            // (int) (fluidTransferInfo.transferDelayMultiplier * fluid.getFluid().getViscosity(fluid) / 100);
-        } else {
-            currentDelay = (int) PipeApi.getFluidTransferInfo(pipe.getDefinition()).transferDelayMultiplier;
+            wakeUp();
         }
+        // The delay doesn't depend on the fluid (yet):
+        // (int) (fluidTransferInfo.transferDelayMultiplier * fluid.getFluid().getViscosity(fluid) / 100);
+        currentDelay = (int) PipeApi.getFluidTransferInfo(pipe.getDefinition()).transferDelayMultiplier;
         for (Section section : sections.values()) {
             section.incoming = new int[currentDelay];
             section.currentTime = 0;
@@ -425,7 +443,10 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             return;
         }
 
-        if (currentFluid != null) {
+        if (BCTransportConfig.fluidNetworkSolver && FluidSegmentSolver.tick(this)) {
+            // Moved along with the rest of the segment
+            tickCooldowns();
+        } else if (currentFluid != null) {
             // int timeSlot = (int) (world.getTotalWorldTime() % currentDelay);
             int totalFluid = 0;
             boolean canOutput = false;
@@ -454,15 +475,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 moveToCenter();
             }
 
-            // tick cooldowns
-            for (EnumPipePart part : EnumPipePart.VALUES) {
-                Section section = sections.get(part);
-                if (section.ticksInDirection > 0) {
-                    section.ticksInDirection--;
-                } else if (section.ticksInDirection < 0) {
-                    section.ticksInDirection++;
-                }
-            }
+            tickCooldowns();
         }
 
         boolean send = false;
@@ -484,6 +497,143 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         if (send && tracker.markTimeIfDelay(world)) {
             // send a net update
             sendPayload(NET_FLUID_AMOUNTS);
+        } else if (!send && currentFluid == null) {
+            sleeping = isIdle();
+        }
+    }
+
+    // ISleepableFlow
+
+    @Override
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    @Override
+    public void wakeUp() {
+        sleeping = false;
+    }
+
+    /** @return True if every section is empty and stationary, so ticking would do nothing. */
+    private boolean isIdle() {
+        for (Section section : sections.values()) {
+            if (section.amount != 0 || section.ticksInDirection != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void tickCooldowns() {
+        for (EnumPipePart part : EnumPipePart.VALUES) {
+            Section section = sections.get(part);
+            if (section.ticksInDirection > 0) {
+                section.ticksInDirection--;
+            } else if (section.ticksInDirection < 0) {
+                section.ticksInDirection++;
+            }
+        }
+    }
+
+    // Segment solving (see FluidSegmentSolver)
+
+    FluidStack getCurrentFluid() {
+        return currentFluid;
+    }
+
+    int getTransferPerTick() {
+        return fluidTransferInfo.transferPerTick;
+    }
+
+    int getTotalAmount() {
+        int total = 0;
+        for (Section section : sections.values()) {
+            total += section.amount;
+        }
+        return total;
+    }
+
+    /** Pushes fluid out of the given sides, which all lead out of this pipe's segment.
+     *
+     * @param fluid The fluid in the segment.
+     * @param sides A bitmask of the sides to try.
+     * @param available The most fluid that can leave, which is never more than this pipe holds.
+     * @return The amount of fluid that was moved out. */
+    int moveOutOfSegment(FluidStack fluid, int sides, int available) {
+        Set<EnumFacing> outputs = EnumSet.noneOf(EnumFacing.class);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if ((sides & (1 << face.ordinal())) != 0
+                && sections.get(EnumPipePart.fromFacing(face)).getCurrentDirection().canOutput()) {
+                outputs.add(face);
+            }
+        }
+        if (outputs.isEmpty()) {
+            return 0;
+        }
+        PipeEventFluid.SideCheck sideCheck = new PipeEventFluid.SideCheck(pipe.getHolder(), this, fluid);
+        sideCheck.disallowAllExcept(outputs);
+        pipe.getHolder().fireEvent(sideCheck);
+
+        int moved = 0;
+        for (EnumFacing face : sideCheck.getOrder()) {
+            int toPush = Math.min(fluidTransferInfo.transferPerTick, available - moved);
+            if (toPush <= 0) {
+                break;
+            }
+            IFluidHandler fluidHandler = pipe.getHolder().getCapabilityFromPipe(face, CapUtil.CAP_FLUIDS);
+            if (fluidHandler == null) {
+                continue;
+            }
+            int filled = fluidHandler.fill(new FluidStack(fluid, toPush), true);
+            if (filled > 0) {
+                moved += filled;
+                sections.get(EnumPipePart.fromFacing(face)).ticksInDirection = COOLDOWN_OUTPUT;
+            }
+        }
+        return moved;
+    }
+
+    /** Sets the direction of the section on the given side to show fluid moving to (or from) the next pipe in the
+     * segment, unless it is already moving that way. */
+    void setSegmentFlowDirection(EnumFacing face, boolean out) {
+        Section section = sections.get(EnumPipePart.fromFacing(face));
+        if (out ? section.ticksInDirection <= 0 : section.ticksInDirection >= 0) {
+            section.ticksInDirection = out ? COOLDOWN_OUTPUT : COOLDOWN_INPUT;
+        }
+    }
+
+    /** Replaces the contents of this pipe with the given amount, spread evenly over the centre and every connected
+     * side.
+     *
+     * @param fluid The fluid in the segment, or null if the segment is now empty. */
+    void setSegmentAmount(@Nullable FluidStack fluid, int amount, int connectedSides) {
+        if (fluid == null) {
+            if (currentFluid != null) {
+                setFluid(null);
+            }
+            for (Section section : sections.values()) {
+                section.amount = 0;
+            }
+            return;
+        }
+        if (currentFluid == null) {
+            setFluid(fluid.copy());
+        }
+        int count = 1 + Integer.bitCount(connectedSides);
+        int each = amount / count;
+        int left = amount - each * count;
+        for (EnumPipePart part : EnumPipePart.VALUES) {
+            Section section = sections.get(part);
+            Arrays.fill(section.incoming, 0);
+            if (part.face == null || (connectedSides & (1 << part.face.ordinal())) != 0) {
+                section.amount = each;
+                if (left > 0) {
+                    section.amount++;
+                    left--;
+                }
+            } else {
+                section.amount = 0;
+            }
         }
     }
 
@@ -9,7 +9,12 @@ package buildcraft.transport.pipe.flow;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
@@ -35,6 +40,7 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 
 import buildcraft.api.core.IStackFilter;
 import buildcraft.api.inventory.IItemTransactor;
+import buildcraft.api.tiles.IDebuggable;
 import buildcraft.api.transport.IInjectable;
 import buildcraft.api.transport.pipe.IFlowItems;
 import buildcraft.api.transport.pipe.IPipe;
@@ -47,17 +53,30 @@ import buildcraft.api.transport.pipe.PipeFlow;
 import buildcraft.lib.inventory.ItemTransactorHelper;
 import buildcraft.lib.inventory.NoSpaceTransactor;
 import buildcraft.lib.misc.CapUtil;
-import buildcraft.lib.misc.MessageUtil;
 import buildcraft.lib.misc.StackUtil;
-import buildcraft.lib.misc.data.DelayedList;
 import buildcraft.lib.net.PacketBufferBC;
 import buildcraft.lib.net.cache.BuildCraftObjectCaches;
 
-public final class PipeFlowItems extends PipeFlow implements IFlowItems {
+import buildcraft.transport.BCTransportConfig;
+import buildcraft.transport.pipe.PipeNetworkGraph;
+
+public final class PipeFlowItems extends PipeFlow implements IFlowItems, IDebuggable {
     private static final double EXTRACT_SPEED = 0.08;
+    private static final int MAX_CACHED_ROUTES = 256;
     public static final int NET_CREATE_ITEM = 2;
 
-    private final DelayedList<TravellingItem> items = new DelayedList<>();
+    /** Every item currently in this pipe, in the order that they were added. The timing of these items is handled by
+     * {@link PipeItemScheduler}. This is a set (of identities, as {@link TravellingItem} doesn't override equals) so
+     * that removing a finished item doesn't have to search every other item. */
+    private final Set<TravellingItem> items = new LinkedHashSet<>();
+    /** Server-side index of {@link #items} used to find merge candidates quickly. */
+    private final ItemMergeIndex mergeIndex = new ItemMergeIndex();
+    /** Routes that have been computed for items reaching the centre of this pipe, valid for as long as
+     * {@link #routeNetwork} is (or until {@link #invalidateRouteCache()} is called). Only used if {@link BCTransportConfig#cacheItemRoutes} is enabled. */
+    private final Map<RouteKey, List<EnumSet<EnumFacing>>> routeCache = new HashMap<>();
+    private PipeNetworkGraph.Network routeNetwork;
+    /** Server-side list of items that have been added or changed this tick, and so need sending to the client. */
+    private final List<TravellingItem> pendingClientItems = new ArrayList<>();
 
     public PipeFlowItems(IPipe pipe) {
         super(pipe);
@@ -70,7 +89,7 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         for (int i = 0; i < list.tagCount(); i++) {
             TravellingItem item = new TravellingItem(list.getCompoundTagAt(i), tickNow);
             if (!(item.stack == null)) {
-                items.add(item.getCurrentDelay(tickNow), item);
+                addItem(item);
             }
         }
     }
@@ -78,14 +97,11 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
     @Override
     public NBTTagCompound writeToNbt() {
         NBTTagCompound nbt = super.writeToNbt();
-        List<List<TravellingItem>> allItems = items.getAllElements();
         NBTTagList list = new NBTTagList();
 
         long tickNow = pipe.getHolder().getPipeWorld().getTotalWorldTime();
-        for (List<TravellingItem> l : allItems) {
-            for (TravellingItem item : l) {
-                list.appendTag(item.writeToNbt(tickNow));
-            }
+        for (TravellingItem item : items) {
+            list.appendTag(item.writeToNbt(tickNow));
         }
         nbt.setTag("items", list);
         return nbt;
@@ -98,42 +114,118 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         PacketBufferBC buffer = PacketBufferBC.asPacketBufferBc(bufIn);
         if (msgSide == Side.CLIENT) {
             if (id == NET_CREATE_ITEM) {
-                int stackId = buffer.readInt();
-                Supplier<ItemStack> link = BuildCraftObjectCaches.retrieveItemStack(stackId);
-                int count = buffer.readUnsignedShort();
-                TravellingItem item = new TravellingItem(link, count);
-                item.toCenter = buffer.readBoolean();
-                item.side = buffer.readEnumValue(EnumFacing.class);
-                item.colour = MessageUtil.readEnumOrNull(buffer, EnumDyeColor.class);
-                item.timeToDest = buffer.readUnsignedShort();
-                item.tickStarted = pipe.getHolder().getPipeWorld().getTotalWorldTime() + 1;
-                item.tickFinished = item.tickStarted + item.timeToDest;
-                items.add(item.timeToDest + 1, item);
+                long tickStarted = pipe.getHolder().getPipeWorld().getTotalWorldTime() + 1;
+                int itemCount = buffer.readVarIntFromBuffer();
+                Supplier<ItemStack> link = null;
+                int lastTimeToDest = 0;
+                for (int i = 0; i < itemCount; i++) {
+                    if (link == null || !buffer.readBoolean()) {
+                        link = BuildCraftObjectCaches.retrieveItemStack(buffer.readVarIntFromBuffer());
+                    }
+                    int count = buffer.readVarIntFromBuffer();
+                    TravellingItem item = new TravellingItem(link, count);
+                    item.setToCenter(buffer.readBoolean());
+                    int side = buffer.readFixedBits(3);
+                    item.setSide(side < 6 ? EnumFacing.VALUES[side] : null);
+                    int colour = buffer.readFixedBits(5);
+                    item.setColour(colour == 0 ? null : EnumDyeColor.byMetadata(colour - 1));
+                    lastTimeToDest += decodeZigZag(buffer.readVarIntFromBuffer());
+                    item.timeToDest = lastTimeToDest;
+                    item.tickStarted = tickStarted;
+                    addItem(item);
+                }
             }
         }
     }
 
+    /** Queues the given item to be sent to the client. Every item queued during a tick is sent together in a single
+     * {@link #NET_CREATE_ITEM} message by {@link #flushClientItems()}. */
     void sendItemDataToClient(TravellingItem item) {
-        final int stackId = BuildCraftObjectCaches.storeItemStack(item.stack);
+        if (pendingClientItems.isEmpty()) {
+            PipeItemScheduler.get(pipe.getHolder().getPipeWorld()).scheduleFlush(this);
+        }
+        pendingClientItems.add(item);
+    }
+
+    /** Called by {@link PipeItemScheduler} at the end of every tick that {@link #sendItemDataToClient(TravellingItem)}
+     * was called in. */
+    void flushClientItems() {
+        if (pendingClientItems.isEmpty()) {
+            return;
+        }
+        List<TravellingItem> toSend = new ArrayList<>(pendingClientItems);
+        pendingClientItems.clear();
+        IPipeHolder holder = pipe.getHolder();
+        if (holder.getPipeTile().isInvalid() || holder.getPipe() != pipe) {
+            return;
+        }
+        int[] stackIds = new int[toSend.size()];
+        for (int i = 0; i < stackIds.length; i++) {
+            TravellingItem item = toSend.get(i);
+            if (i > 0 && StackUtil.canMerge(toSend.get(i - 1).stack, item.stack)) {
+                stackIds[i] = stackIds[i - 1];
+            } else {
+                stackIds[i] = BuildCraftObjectCaches.storeItemStack(item.stack);
+            }
+        }
         sendCustomPayload(NET_CREATE_ITEM, (buffer) -> {
             PacketBufferBC buf = PacketBufferBC.asPacketBufferBc(buffer);
-            buf.writeInt(stackId);
-            buf.writeShort(item.stack.stackSize);
-            buf.writeBoolean(item.toCenter);
-            buf.writeEnumValue(item.side);
-            MessageUtil.writeEnumOrNull(buf, item.colour);
-            buf.writeShort(item.timeToDest > Short.MAX_VALUE ? Short.MAX_VALUE : item.timeToDest);
+            buf.writeVarIntToBuffer(toSend.size());
+            int lastTimeToDest = 0;
+            for (int i = 0; i < stackIds.length; i++) {
+                TravellingItem item = toSend.get(i);
+                if (i > 0) {
+                    buf.writeBoolean(stackIds[i] == stackIds[i - 1]);
+                }
+                if (i == 0 || stackIds[i] != stackIds[i - 1]) {
+                    buf.writeVarIntToBuffer(stackIds[i]);
+                }
+                buf.writeVarIntToBuffer(item.stack.stackSize);
+                buf.writeBoolean(item.isToCenter());
+                EnumFacing side = item.getSide();
+                buf.writeFixedBits(side == null ? 7 : side.ordinal(), 3);
+                EnumDyeColor colour = item.getColour();
+                buf.writeFixedBits(colour == null ? 0 : colour.getMetadata() + 1, 5);
+                int timeToDest = Math.min(item.timeToDest, Short.MAX_VALUE);
+                buf.writeVarIntToBuffer(encodeZigZag(timeToDest - lastTimeToDest));
+                lastTimeToDest = timeToDest;
+            }
         });
     }
 
+    private static int encodeZigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int decodeZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
     @Override
     public void addDrops(List<ItemStack> toDrop, int fortune) {
         super.addDrops(toDrop, fortune);
-        for (List<TravellingItem> list : items.getAllElements()) {
-            for (TravellingItem item : list) {
-                if (!item.isPhantom) {
-                    toDrop.add(item.stack);
-                }
+        for (TravellingItem item : items) {
+            if (!item.isPhantom()) {
+                toDrop.add(item.stack);
+            }
+        }
+    }
+
+    // IDebuggable
+
+    @Override
+    public void getDebugInfo(List<String> left, List<String> right, EnumFacing side) {
+        left.add(" - Items = " + items.size());
+        if (!pipe.getHolder().getPipeWorld().isRemote) {
+            long attempts = mergeIndex.getAttempts();
+            long hits = mergeIndex.getHits();
+            String rate = attempts == 0 ? "n/a" : (hits * 100 / attempts) + "%";
+            left.add(" - Merges = " + hits + " / " + attempts + " (" + rate + ")");
+            left.add(" - World scheduled items = "
+                + PipeItemScheduler.get(pipe.getHolder().getPipeWorld()).getScheduledCount());
+            if (routeNetwork != null && routeNetwork.isValid()) {
+                left.add(" - Cached routes = " + routeCache.size() + " (network of " + routeNetwork.getPipeCount()
+                    + " pipes)");
             }
         }
     }
@@ -199,24 +291,24 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         long now = pipe.getHolder().getPipeWorld().getTotalWorldTime();
 
         TravellingItem firstItem = new TravellingItem(stack);
-        firstItem.isPhantom = true;
-        firstItem.toCenter = face1 == null;
-        firstItem.colour = colour;
-        firstItem.side = face0 == null ? face1 : face0;
-        firstItem.speed = EXTRACT_SPEED;
-        firstItem.genTimings(now, getPipeLength(firstItem.side));
-        items.add(firstItem.timeToDest, firstItem);
+        firstItem.setPhantom(true);
+        firstItem.setToCenter(face1 == null);
+        firstItem.setColour(colour);
+        firstItem.setSide(face0 == null ? face1 : face0);
+        firstItem.setSpeed(EXTRACT_SPEED);
+        firstItem.genTimings(now, getPipeLength(firstItem.getSide()));
+        addItem(firstItem);
         sendItemDataToClient(firstItem);
 
         if (twoItems) {
             TravellingItem secondItem = new TravellingItem(stack);
-            secondItem.isPhantom = true;
-            secondItem.toCenter = false;
-            secondItem.colour = colour;
-            secondItem.side = face2;
-            secondItem.speed = EXTRACT_SPEED;
-            secondItem.genTimings(firstItem.tickFinished, getPipeLength(secondItem.side));
-            items.add(secondItem.timeToDest, secondItem);
+            secondItem.setPhantom(true);
+            secondItem.setToCenter(false);
+            secondItem.setColour(colour);
+            secondItem.setSide(face2);
+            secondItem.setSpeed(EXTRACT_SPEED);
+            secondItem.genTimings(firstItem.getTickFinished(), getPipeLength(face2));
+            addItem(secondItem);
             sendItemDataToClient(secondItem);
         }
     }
@@ -246,56 +338,61 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
 
     @Override
     public void onTick() {
-        World world = pipe.getHolder().getPipeWorld();
+        // Items are woken up by the PipeItemScheduler when they reach the centre or end, so there is nothing to do here
+    }
 
-        List<TravellingItem> toTick = items.advance();
-        if (world.isRemote) {
+    /** Drops every route cached for this pipe, without invalidating the rest of the network. Called whenever this
+     * pipe's behaviour or pluggables change how it routes items. */
+    public void invalidateRouteCache() {
+        routeCache.clear();
+    }
+
+    private void addItem(TravellingItem item) {
+        items.add(item);
+        if (!pipe.getHolder().getPipeWorld().isRemote) {
+            mergeIndex.add(item);
+        }
+        PipeItemScheduler.get(pipe.getHolder().getPipeWorld()).schedule(this, item);
+    }
+
+    /** Called by {@link PipeItemScheduler} when the given item has reached its {@link TravellingItem#getTickFinished()}. */
+    void onItemFinished(TravellingItem item) {
+        IPipeHolder holder = pipe.getHolder();
+        if (holder.getPipeTile().isInvalid() || holder.getPipe() != pipe) {
+            // This pipe has been unloaded or removed since the item was scheduled
+            return;
+        }
+        if (!items.remove(item)) {
+            return;
+        }
+        mergeIndex.remove(item);
+        if (holder.getPipeWorld().isRemote) {
             // TODO: Client item advancing/intelligent stuffs
             return;
         }
-
-        for (TravellingItem item : toTick) {
-            if (item.isPhantom) {
-                continue;
-            }
-            if (item.toCenter) {
-                onItemReachCenter(item);
-            } else {
-                onItemReachEnd(item);
-            }
+        if (item.isPhantom()) {
+            return;
+        }
+        if (item.isToCenter()) {
+            onItemReachCenter(item);
+        } else {
+            onItemReachEnd(item);
         }
     }
 
     private void onItemReachCenter(TravellingItem item) {
         IPipeHolder holder = pipe.getHolder();
         PipeEventItem.ReachCenter reachCenter =
-            new PipeEventItem.ReachCenter(holder, this, item.colour, item.stack, item.side);
+            new PipeEventItem.ReachCenter(holder, this, item.getColour(), item.stack, item.getSide());
         holder.fireEvent(reachCenter);
         if (reachCenter.getStack() == null) {
             return;
         }
 
-        PipeEventItem.SideCheck sideCheck =
-            new PipeEventItem.SideCheck(holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack());
-        sideCheck.disallow(reachCenter.from);
-        for (EnumFacing face : EnumFacing.VALUES) {
-            if (item.tried.contains(face) || !pipe.isConnected(face)) {
-                sideCheck.disallow(face);
-            }
-        }
-        holder.fireEvent(sideCheck);
-
-        List<EnumSet<EnumFacing>> order = sideCheck.getOrder();
+        List<EnumSet<EnumFacing>> order = getRouteOrder(item, reachCenter);
         if (order.isEmpty()) {
-            PipeEventItem.TryBounce tryBounce =
-                new PipeEventItem.TryBounce(holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack());
-            holder.fireEvent(tryBounce);
-            if (tryBounce.canBounce) {
-                order = ImmutableList.of(EnumSet.of(reachCenter.from));
-            } else {
-                dropItem(item.stack, null, item.side.getOpposite(), item.speed);
-                return;
-            }
+            dropItem(item.stack, null, item.getSide().getOpposite(), item.getSpeed());
+            return;
         }
 
         PipeEventItem.ItemEntry entry =
@@ -313,13 +410,13 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
             if (itemEntry.stack == null) {
                 continue;
             }
-            PipeEventItem.ModifySpeed modifySpeed = new PipeEventItem.ModifySpeed(holder, this, itemEntry, item.speed);
+            PipeEventItem.ModifySpeed modifySpeed = new PipeEventItem.ModifySpeed(holder, this, itemEntry, item.getSpeed());
             modifySpeed.modifyTo(0.04, 0.01);
             holder.fireEvent(modifySpeed);
 
             double target = modifySpeed.targetSpeed;
             double maxDelta = modifySpeed.maxSpeedChange;
-            double nSpeed = item.speed;
+            double nSpeed = item.getSpeed();
             if (nSpeed < target) {
                 nSpeed += maxDelta;
                 if (nSpeed > target) {
@@ -337,43 +434,115 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
                 destinations = findDest.generateRandomOrder();
             }
             if (destinations.size() == 0) {
-                dropItem(itemEntry.stack, null, item.side.getOpposite(), nSpeed);
+                dropItem(itemEntry.stack, null, item.getSide().getOpposite(), nSpeed);
             } else {
                 TravellingItem newItem = new TravellingItem(itemEntry.stack);
-                newItem.tried.addAll(item.tried);
-                newItem.toCenter = false;
-                newItem.colour = itemEntry.colour;
-                newItem.side = destinations.get(0);
-                newItem.speed = nSpeed;
-                newItem.genTimings(now, getPipeLength(newItem.side));
-                items.add(newItem.timeToDest, newItem);
+                newItem.addAllTried(item);
+                newItem.setToCenter(false);
+                newItem.setColour(itemEntry.colour);
+                newItem.setSide(destinations.get(0));
+                newItem.setSpeed(nSpeed);
+                newItem.genTimings(now, getPipeLength(newItem.getSide()));
+                addItem(newItem);
                 sendItemDataToClient(newItem);
             }
         }
     }
 
+    /** @return The order of sides that the given item can go to, or an empty list if the item should be dropped. */
+    private List<EnumSet<EnumFacing>> getRouteOrder(TravellingItem item, PipeEventItem.ReachCenter reachCenter) {
+        if (!BCTransportConfig.cacheItemRoutes) {
+            return computeRouteOrder(item, reachCenter, null);
+        }
+        IPipeHolder holder = pipe.getHolder();
+        PipeNetworkGraph.Network network = PipeNetworkGraph.get(holder.getPipeWorld()).getNetwork(holder);
+        if (network != routeNetwork || routeCache.size() > MAX_CACHED_ROUTES) {
+            routeCache.clear();
+            routeNetwork = network;
+        }
+        RouteKey key = new RouteKey(reachCenter, item.getTriedMask());
+        List<EnumSet<EnumFacing>> order = routeCache.get(key);
+        if (order == null) {
+            order = computeRouteOrder(item, reachCenter, network);
+            routeCache.put(key.copyForCache(), order);
+        }
+        // Event handlers further on are allowed to modify the order, so always hand out a copy
+        List<EnumSet<EnumFacing>> copy = new ArrayList<>(order.size());
+        for (EnumSet<EnumFacing> set : order) {
+            copy.add(EnumSet.copyOf(set));
+        }
+        return copy;
+    }
+
+    private List<EnumSet<EnumFacing>> computeRouteOrder(TravellingItem item, PipeEventItem.ReachCenter reachCenter,
+        @Nullable PipeNetworkGraph.Network network) {
+        IPipeHolder holder = pipe.getHolder();
+        PipeEventItem.SideCheck sideCheck =
+            new PipeEventItem.SideCheck(holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack());
+        sideCheck.disallow(reachCenter.from);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (item.hasTried(face) || !pipe.isConnected(face)) {
+                sideCheck.disallow(face);
+            }
+        }
+        holder.fireEvent(sideCheck);
+
+        List<EnumSet<EnumFacing>> order = sideCheck.getOrder();
+        if (network != null) {
+            order = removeDeadEnds(order, network);
+        }
+        if (order.isEmpty()) {
+            PipeEventItem.TryBounce tryBounce =
+                new PipeEventItem.TryBounce(holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack());
+            holder.fireEvent(tryBounce);
+            if (tryBounce.canBounce) {
+                order = ImmutableList.of(EnumSet.of(reachCenter.from));
+            }
+        }
+        return order;
+    }
+
+    /** Removes every side that only leads to a dead end in the given network, unless that would leave nowhere for
+     * the item to go. */
+    private List<EnumSet<EnumFacing>> removeDeadEnds(List<EnumSet<EnumFacing>> order,
+        PipeNetworkGraph.Network network) {
+        BlockPos pos = pipe.getHolder().getPipePos();
+        List<EnumSet<EnumFacing>> filtered = new ArrayList<>(order.size());
+        boolean any = false;
+        for (EnumSet<EnumFacing> set : order) {
+            EnumSet<EnumFacing> copy = EnumSet.copyOf(set);
+            copy.removeIf(face -> network.isDeadEnd(pos, face));
+            any |= !copy.isEmpty();
+            filtered.add(copy);
+        }
+        return any ? filtered : order;
+    }
+
     private void onItemReachEnd(TravellingItem item) {
         IPipeHolder holder = pipe.getHolder();
-        PipeEventItem.ReachEnd reachEnd = new PipeEventItem.ReachEnd(holder, this, item.colour, item.stack, item.side);
+        EnumFacing side = item.getSide();
+        PipeEventItem.ReachEnd reachEnd = new PipeEventItem.ReachEnd(holder, this, item.getColour(), item.stack, side);
         holder.fireEvent(reachEnd);
-        item.colour = reachEnd.colour;
+        EnumDyeColor colour = reachEnd.colour;
+        double speed = item.getSpeed();
+        item.setColour(colour);
         item.stack = reachEnd.getStack();
         ItemStack excess = item.stack;
         if (excess == null) {
             return;
         }
-        if (pipe.isConnected(item.side)) {
-            ConnectedType type = pipe.getConnectedType(item.side);
+        if (pipe.isConnected(side)) {
+            ConnectedType type = pipe.getConnectedType(side);
             switch (type) {
                 case PIPE: {
-                    IPipe oPipe = pipe.getConnectedPipe(item.side);
+                    IPipe oPipe = pipe.getConnectedPipe(side);
                     if (oPipe == null) {
                         break;
                     }
                     PipeFlow flow = oPipe.getFlow();
                     if (flow instanceof IFlowItems) {
                         IFlowItems oFlow = (IFlowItems) flow;
-                        excess = oFlow.injectItem(excess, true, item.side.getOpposite(), item.colour, item.speed);
+                        excess = oFlow.injectItem(excess, true, side.getOpposite(), colour, speed);
                         if (excess == null) {
                             return;
                         }
@@ -381,14 +550,14 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
                     break;
                 }
                 case TILE: {
-                    TileEntity tile = pipe.getConnectedTile(item.side);
-                    IInjectable injectable = ItemTransactorHelper.getInjectable(tile, item.side.getOpposite());
-                    excess = injectable.injectItem(excess, true, item.side.getOpposite(), item.colour, item.speed);
+                    TileEntity tile = pipe.getConnectedTile(side);
+                    IInjectable injectable = ItemTransactorHelper.getInjectable(tile, side.getOpposite());
+                    excess = injectable.injectItem(excess, true, side.getOpposite(), colour, speed);
                     if (excess == null) {
                         return;
                     }
 
-                    IItemTransactor transactor = ItemTransactorHelper.getTransactor(tile, item.side.getOpposite());
+                    IItemTransactor transactor = ItemTransactorHelper.getTransactor(tile, side.getOpposite());
                     excess = transactor.insert(excess, false, false);
 
                     if (excess == null) {
@@ -402,11 +571,11 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         if (excess == null) {
             return;
         }
-        item.tried.add(item.side);
-        item.toCenter = true;
+        item.addTried(side);
+        item.setToCenter(true);
         item.stack = excess;
-        item.genTimings(holder.getPipeWorld().getTotalWorldTime(), getPipeLength(item.side));
-        items.add(item.timeToDest, item);
+        item.genTimings(holder.getPipeWorld().getTotalWorldTime(), getPipeLength(side));
+        addItem(item);
         sendItemDataToClient(item);
     }
 
@@ -493,12 +662,12 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         }
         long now = world.getTotalWorldTime();
         TravellingItem item = new TravellingItem(stack);
-        item.side = from;
-        item.toCenter = true;
-        item.speed = speed;
-        item.colour = colour;
+        item.setSide(from);
+        item.setToCenter(true);
+        item.setSpeed(speed);
+        item.setColour(colour);
         item.genTimings(now, 0);
-        item.tried.add(from);
+        item.addTried(from);
         addItemTryMerge(item);
     }
 
@@ -517,25 +686,21 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         long now = world.getTotalWorldTime();
 
         TravellingItem item = new TravellingItem(toInsert);
-        item.side = from;
-        item.toCenter = true;
-        item.speed = speed;
-        item.colour = onInsert.colour;
+        item.setSide(from);
+        item.setToCenter(true);
+        item.setSpeed(speed);
+        item.setColour(onInsert.colour);
         item.stack = onInsert.getStack();
         item.genTimings(now, getPipeLength(from));
-        item.tried.add(from);
+        item.addTried(from);
         addItemTryMerge(item);
     }
 
-    private void addItemTryMerge(TravellingItem item) {
-        for (List<TravellingItem> list : items.getAllElements()) {
-            for (TravellingItem item2 : list) {
-                if (item2.mergeWith(item)) {
-                    return;
-                }
-            }
+    void addItemTryMerge(TravellingItem item) {
+        if (mergeIndex.tryMerge(item)) {
+            return;
         }
-        items.add(item.timeToDest, item);
+        addItem(item);
         sendItemDataToClient(item);
     }
 
@@ -563,10 +728,58 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
 
     @SideOnly(Side.CLIENT)
     public List<TravellingItem> getAllItemsForRender() {
-        List<TravellingItem> all = new ArrayList<>();
-        for (List<TravellingItem> innerList : items.getAllElements()) {
-            all.addAll(innerList);
+        return new ArrayList<>(items);
+    }
+
+    /** Everything that the {@link PipeEventItem.SideCheck} for an item depends on. */
+    /** The parts of an item that {@link #computeRouteOrder} depends on. The stack is compared (ignoring its count)
+     * with {@link StackUtil#canMerge(ItemStack, ItemStack)}, which doesn't need to serialise it. Probe keys refer
+     * to the item's own stack, and only keys that are stored in {@link #routeCache} take a copy of it. */
+    private static final class RouteKey {
+        private final EnumFacing from;
+        private final EnumDyeColor colour;
+        private final int tried;
+        private final ItemStack stack;
+        private final int hash;
+
+        RouteKey(PipeEventItem.ReachCenter reachCenter, int tried) {
+            this(reachCenter.from, reachCenter.colour, tried, reachCenter.getStack());
+        }
+
+        private RouteKey(EnumFacing from, EnumDyeColor colour, int tried, ItemStack stack) {
+            this.from = from;
+            this.colour = colour;
+            this.tried = tried;
+            this.stack = stack;
+            NBTTagCompound tag = stack.getTagCompound();
+            int h = Objects.hashCode(from);
+            h = h * 31 + Objects.hashCode(colour);
+            h = h * 31 + tried;
+            h = h * 31 + Objects.hashCode(stack.getItem());
+            h = h * 31 + stack.getItemDamage();
+            this.hash = h * 31 + (tag == null ? 0 : tag.hashCode());
+        }
+
+        /** @return A key that won't change if the stack that this was created from does. */
+        RouteKey copyForCache() {
+            return new RouteKey(from, colour, tried, stack.copy());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null || obj.getClass() != getClass()) return false;
+            RouteKey other = (RouteKey) obj;
+            return hash == other.hash//
+                && from == other.from//
+                && colour == other.colour//
+                && tried == other.tried//
+                && StackUtil.canMerge(stack, other.stack);
         }
-        return all;
     }
 }
@@ -45,7 +45,9 @@ import buildcraft.lib.misc.data.AverageInt;
 
 import buildcraft.core.BCCoreConfig;
 
-public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
+import buildcraft.transport.BCTransportConfig;
+
+public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable, ISleepableFlow {
     private static final long DEFAULT_MAX_POWER = MjAPI.MJ * 10;
     public static final int NET_POWER_AMOUNTS = 2;
 
@@ -58,6 +60,18 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
     private boolean isReceiver = false;
     private final EnumMap<EnumFacing, Section> sections;
 
+    /** True if no power is moving through or being requested from this, so it doesn't need to tick until power is
+     * requested or received. Only used on the server. */
+    private boolean sleeping = false;
+
+    /** The network that this is in, if {@link BCTransportConfig#powerNetworkSolver} is enabled. */
+    PowerNetworkSolver.Network network;
+    /** The power requested from each side of this by the network, if this is a receiver. */
+    long networkPowerRequested;
+    /** The power that the network sent through this pipe on the last tick. */
+    private long networkThroughput;
+    private boolean displayDirty = false;
+
     private final SafeTimeTracker tracker = new SafeTimeTracker(BCCoreConfig.networkUpdateRate);
     private long[] transferQuery;
 
@@ -137,6 +151,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         pipe.getHolder().fireEvent(configure);
         isReceiver = configure.isReceiver();
         maxPower = configure.getMaxPower();
+        wakeUp();
         if (maxPower <= 0) {
             maxPower = DEFAULT_MAX_POWER;
         }
@@ -201,6 +216,10 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         left.add(
             "- power: IN " + arrayToString(s -> s.debugPowerInput) + ", OUT " + arrayToString(s -> s.debugPowerOutput));
         left.add("- power: OFFERED " + arrayToString(s -> s.debugPowerOffered));
+        if (!pipe.getHolder().getPipeWorld().isRemote) {
+            left.add("- sleeping = " + sleeping);
+            FlowSleepStats.addDebugInfo(pipe.getHolder().getPipeWorld(), left);
+        }
     }
 
     private String arrayToString(ToLongFunction<Section> getter) {
@@ -216,8 +235,12 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         if (pipe.getHolder().getPipeWorld().isRemote) {
             return;
         }
-        if (maxPower == -1) {
-            reconfigure();
+        ensureConfigured();
+
+        if (BCTransportConfig.powerNetworkSolver && PowerNetworkSolver.tick(this)) {
+            tickNetworkDisplay();
+            sleeping = isIdle();
+            return;
         }
 
         step();
@@ -326,6 +349,114 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         transferQuery = transferQueryTemp;
 //        }
+        sleeping = isIdle();
+    }
+
+    // ISleepableFlow
+
+    @Override
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    @Override
+    public void wakeUp() {
+        sleeping = false;
+    }
+
+    /** @return True if there is no power in or requested from any section, and nothing is connected that might
+     *         request power without asking us first. */
+    private boolean isIdle() {
+        for (Section s : sections.values()) {
+            if (s.powerQuery != 0 || s.nextPowerQuery != 0 || s.internalPower != 0 || s.internalNextPower != 0
+                || s.displayPower != 0) {
+                return false;
+            }
+        }
+        for (EnumFacing face : EnumFacing.VALUES) {
+            // Tiles are polled for their power request every tick
+            if (pipe.getConnectedType(face) == ConnectedType.TILE
+                && pipe.getHolder().getCapabilityFromPipe(face, MjAPI.CAP_RECEIVER) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Updates the displayed power from the power that the network sent through this pipe. */
+    private void tickNetworkDisplay() {
+        int value = (int) Math.min(networkThroughput, Integer.MAX_VALUE);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            Section s = sections.get(face);
+            if (pipe.isConnected(face)) {
+                s.powerAverage.push(value);
+            }
+            s.powerAverage.tick();
+            int old = s.displayPower;
+            long average = (long) s.powerAverage.getAverage();
+            s.displayPower = (int) Math.min(average * MjAPI.MJ / maxPower, MjAPI.MJ);
+            displayDirty |= old != s.displayPower;
+        }
+        if (displayDirty && tracker.markTimeIfDelay(pipe.getHolder().getPipeWorld())) {
+            displayDirty = false;
+            sendPayload(NET_POWER_AMOUNTS);
+        }
+    }
+
+    // Network solving (see PowerNetworkSolver)
+
+    void ensureConfigured() {
+        if (maxPower == -1) {
+            reconfigure();
+        }
+    }
+
+    long getMaxPower() {
+        return maxPower;
+    }
+
+    long getPowerLoss() {
+        return powerLoss;
+    }
+
+    long getPowerResistance() {
+        return powerResistance;
+    }
+
+    boolean isReceiver() {
+        return isReceiver;
+    }
+
+    long getStoredPower() {
+        long total = 0;
+        for (Section s : sections.values()) {
+            total += s.internalPower + s.internalNextPower;
+        }
+        return total;
+    }
+
+    /** Reduces the power stored in every section evenly, so that the total is the given amount. */
+    void setStoredPower(long power) {
+        long total = getStoredPower();
+        if (total == power) {
+            return;
+        }
+        double fraction = total == 0 ? 0 : power / (double) total;
+        long left = power;
+        for (Section s : sections.values()) {
+            s.internalPower = (long) (s.internalPower * fraction);
+            s.internalNextPower = (long) (s.internalNextPower * fraction);
+            left -= s.internalPower + s.internalNextPower;
+        }
+        // Put the rounding error back somewhere
+        sections.get(EnumFacing.DOWN).internalPower += left;
+    }
+
+    void setNetworkThroughput(long throughput) {
+        networkThroughput = throughput;
+        if (throughput > 0) {
+            wakeUp();
+        }
     }
 
     private void step() {
@@ -341,6 +472,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
     }
 
     private void requestPower(EnumFacing from, long amount) {
+        wakeUp();
         step();
 
         Section s = sections.get(from);
@@ -400,6 +532,9 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         @Override
         public long getPowerRequested() {
+            if (network != null && network.valid && network.solved) {
+                return networkPowerRequested;
+            }
             long req = 0;
             for (EnumFacing face : EnumFacing.VALUES) {
                 if (face != this.side) {
@@ -411,6 +546,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         long receivePowerInternal(long sent) {
             if (sent > 0) {
+                wakeUp();
                 debugPowerOffered += sent;
                 internalNextPower += sent;
                 return 0;
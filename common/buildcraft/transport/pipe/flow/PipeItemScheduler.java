@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.world.World;
+
+import buildcraft.lib.misc.data.TimingWheel;
+
+/** Holds every {@link TravellingItem} in a world in a single {@link TimingWheel}, keyed on
+ * {@link TravellingItem#getTickFinished()}. This means that {@link PipeFlowItems} doesn't need to do anything in
+ * {@link PipeFlowItems#onTick()}: only pipes that have an item reaching the centre or end on a given tick are woken
+ * up. */
+public final class PipeItemScheduler {
+    private static final Map<World, PipeItemScheduler> SCHEDULERS = new WeakHashMap<>();
+
+    private final TimingWheel<TravellingItem> wheel;
+    private final List<PipeFlowItems> toFlush = new ArrayList<>();
+
+    private PipeItemScheduler(long now) {
+        wheel = new TimingWheel<>(TravellingItem::getTickFinished, now);
+    }
+
+    public static PipeItemScheduler get(World world) {
+        PipeItemScheduler scheduler = SCHEDULERS.get(world);
+        if (scheduler == null) {
+            scheduler = new PipeItemScheduler(world.getTotalWorldTime());
+            SCHEDULERS.put(world, scheduler);
+        }
+        return scheduler;
+    }
+
+    /** Called at the end of every world tick (and every client tick for the client world) to hand every item that has
+     * finished travelling back to the pipe that it is in. */
+    public static void onWorldTick(World world) {
+        PipeItemScheduler scheduler = SCHEDULERS.get(world);
+        if (scheduler != null) {
+            scheduler.wheel.advanceTo(world.getTotalWorldTime(), PipeItemScheduler::onItemFinished);
+            scheduler.flushClientItems();
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        SCHEDULERS.remove(world);
+    }
+
+    private static void onItemFinished(TravellingItem item) {
+        PipeFlowItems flow = item.owner;
+        if (flow != null) {
+            flow.onItemFinished(item);
+        }
+    }
+
+    private void flushClientItems() {
+        if (toFlush.isEmpty()) {
+            return;
+        }
+        List<PipeFlowItems> flows = new ArrayList<>(toFlush);
+        toFlush.clear();
+        for (PipeFlowItems flow : flows) {
+            flow.flushClientItems();
+        }
+    }
+
+    /** Marks the given flow as having items that need sending to the client at the end of this tick. */
+    void scheduleFlush(PipeFlowItems flow) {
+        toFlush.add(flow);
+    }
+
+    void schedule(PipeFlowItems flow, TravellingItem item) {
+        item.owner = flow;
+        wheel.add(item);
+    }
+
+    public int getScheduledCount() {
+        return wheel.size();
+    }
+}
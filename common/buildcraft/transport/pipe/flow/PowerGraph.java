@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.Arrays;
+
+import buildcraft.api.mj.MjAPI;
+
+import buildcraft.transport.BCTransportConfig.PowerLossMode;
+
+/** Works out how the power stored in a network of power pipes should be split between the receivers connected to it,
+ * in a single pass. This doesn't know anything about pipes or tiles: each node is a pipe, and the caller
+ * ({@link PowerNetworkSolver}) is responsible for moving the power.
+ * <p>
+ * Every receiver is reached along the shortest path from the nearest node that power can enter the network from. The
+ * power stored anywhere in the network is shared between every receiver in proportion to how much they requested
+ * (plus what would be lost along the way), and then each path is scaled down so that no node carries more than its
+ * {@link #maxPower}. */
+public final class PowerGraph {
+    public final int nodeCount;
+    private final int[][] neighbours;
+
+    public final long[] maxPower, powerLoss, powerResistance;
+
+    /** The power that was sent through each node by the last call to {@link #solve}. */
+    public final long[] throughput;
+
+    private final int[] parent, queue;
+    private final long[] bottleneck, lossSum;
+    private final double[] keep;
+    private final double[] ratio;
+
+    /** @param neighbours The indices of every node that each node is connected to. */
+    public PowerGraph(int[][] neighbours) {
+        this.nodeCount = neighbours.length;
+        this.neighbours = neighbours;
+        maxPower = new long[nodeCount];
+        powerLoss = new long[nodeCount];
+        powerResistance = new long[nodeCount];
+        throughput = new long[nodeCount];
+        parent = new int[nodeCount];
+        queue = new int[nodeCount];
+        bottleneck = new long[nodeCount];
+        lossSum = new long[nodeCount];
+        keep = new double[nodeCount];
+        ratio = new double[nodeCount];
+    }
+
+    /** @param stored The power stored in each node. This is not changed: use {@link #drain(long[], long)} once the
+     *            power has actually been moved.
+     * @param source True for each node that power can enter the network from. Nodes with stored power are always
+     *            treated as sources.
+     * @param sinkCount The number of receivers.
+     * @param sinkNodes The node that each receiver is connected to.
+     * @param requested The power that each receiver requested.
+     * @param mode How power should be lost as it travels through each node.
+     * @param sent Filled with the power that should be taken from the network for each receiver.
+     * @param delivered Filled with the power that each receiver should be given, after losses.
+     * @return The total power that would have to be taken from the network to give every receiver what it requested
+     *         (as far as {@link #maxPower} allows). */
+    public long solve(long[] stored, boolean[] source, int sinkCount, int[] sinkNodes, long[] requested,
+        PowerLossMode mode, long[] sent, long[] delivered) {
+        Arrays.fill(throughput, 0);
+        long totalStored = 0;
+        int head = 0, tail = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            totalStored += stored[n];
+            if (source[n] || stored[n] > 0) {
+                parent[n] = n;
+                bottleneck[n] = maxPower[n];
+                lossSum[n] = powerLoss[n];
+                keep[n] = keepFraction(n);
+                queue[tail++] = n;
+            } else {
+                parent[n] = -1;
+            }
+        }
+
+        // Breadth first search from every source at once
+        while (head < tail) {
+            int n = queue[head++];
+            for (int o : neighbours[n]) {
+                if (parent[o] != -1) {
+                    continue;
+                }
+                parent[o] = n;
+                bottleneck[o] = Math.min(bottleneck[n], maxPower[o]);
+                lossSum[o] = lossSum[n] + powerLoss[o];
+                keep[o] = keep[n] * keepFraction(o);
+                queue[tail++] = o;
+            }
+        }
+
+        long totalDemand = 0;
+        for (int i = 0; i < sinkCount; i++) {
+            int n = sinkNodes[i];
+            long demand = 0;
+            if (parent[n] != -1 && requested[i] > 0) {
+                demand = costOf(n, Math.min(requested[i], bottleneck[n]), mode);
+            }
+            sent[i] = demand;
+            totalDemand += demand;
+        }
+
+        if (totalDemand == 0 || totalStored == 0) {
+            Arrays.fill(sent, 0, sinkCount, 0);
+            Arrays.fill(delivered, 0, sinkCount, 0);
+            return totalDemand;
+        }
+
+        if (totalStored < totalDemand) {
+            double scale = totalStored / (double) totalDemand;
+            for (int i = 0; i < sinkCount; i++) {
+                sent[i] = (long) (sent[i] * scale);
+            }
+        }
+
+        // Paths that share a node might carry more than it allows in total, so scale them back down
+        addThroughput(sinkCount, sinkNodes, sent);
+        boolean overloaded = false;
+        for (int n = 0; n < nodeCount; n++) {
+            ratio[n] = throughput[n] > maxPower[n] ? maxPower[n] / (double) throughput[n] : 1;
+            overloaded |= ratio[n] < 1;
+        }
+        if (overloaded) {
+            for (int i = 0; i < sinkCount; i++) {
+                double pathRatio = 1;
+                for (int n = sinkNodes[i]; sent[i] > 0; n = parent[n]) {
+                    pathRatio = Math.min(pathRatio, ratio[n]);
+                    if (parent[n] == n) {
+                        break;
+                    }
+                }
+                if (pathRatio < 1) {
+                    sent[i] = (long) (sent[i] * pathRatio);
+                }
+            }
+            Arrays.fill(throughput, 0);
+            addThroughput(sinkCount, sinkNodes, sent);
+        }
+
+        for (int i = 0; i < sinkCount; i++) {
+            delivered[i] = sent[i] == 0 ? 0 : deliveredFor(sinkNodes[i], sent[i], mode);
+        }
+        return totalDemand;
+    }
+
+    private void addThroughput(int sinkCount, int[] sinkNodes, long[] sent) {
+        for (int i = 0; i < sinkCount; i++) {
+            if (sent[i] <= 0) {
+                continue;
+            }
+            for (int n = sinkNodes[i];; n = parent[n]) {
+                throughput[n] += sent[i];
+                if (parent[n] == n) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private double keepFraction(int n) {
+        return 1 - powerResistance[n] / (double) MjAPI.MJ;
+    }
+
+    /** @return The power that has to be sent to the given node to deliver the given amount. */
+    private long costOf(int node, long amount, PowerLossMode mode) {
+        switch (mode) {
+            case PERCENTAGE:
+                return keep[node] <= 0 ? 0 : (long) Math.ceil(amount / keep[node]);
+            case ABSOLUTE:
+                return amount + lossSum[node];
+            default:
+                return amount;
+        }
+    }
+
+    private long deliveredFor(int node, long sent, PowerLossMode mode) {
+        switch (mode) {
+            case PERCENTAGE:
+                return (long) (sent * keep[node]);
+            case ABSOLUTE:
+                return Math.max(0, sent - lossSum[node]);
+            default:
+                return sent;
+        }
+    }
+
+    /** Removes the given amount of power from every node, in proportion to how much each one stores. */
+    public static void drain(long[] stored, long amount) {
+        long total = 0;
+        for (long s : stored) {
+            total += s;
+        }
+        if (amount <= 0 || total <= 0) {
+            return;
+        }
+        if (amount >= total) {
+            Arrays.fill(stored, 0);
+            return;
+        }
+        double fraction = amount / (double) total;
+        long left = amount;
+        for (int i = 0; i < stored.length; i++) {
+            long take = Math.min(stored[i], Math.min(left, (long) (stored[i] * fraction)));
+            stored[i] -= take;
+            left -= take;
+        }
+        // Rounding leaves a little behind
+        for (int i = 0; i < stored.length && left > 0; i++) {
+            long take = Math.min(stored[i], left);
+            stored[i] -= take;
+            left -= take;
+        }
+    }
+}
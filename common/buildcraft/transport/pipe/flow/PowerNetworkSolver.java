@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package buildcraft.transport.pipe.flow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import buildcraft.api.mj.IMjReceiver;
+import buildcraft.api.mj.MjAPI;
+import buildcraft.api.transport.pipe.IPipe;
+import buildcraft.api.transport.pipe.IPipe.ConnectedType;
+
+import buildcraft.transport.BCTransportConfig;
+
+/** An alternative to the per-pipe power stepping in {@link PipeFlowPower}, enabled by
+ * {@link BCTransportConfig#powerNetworkSolver}. Every connected set of power pipes is a {@link Network}, and the first
+ * pipe in it to tick each tick moves power from everywhere it is stored in the network straight to every receiver
+ * that wants it (using a {@link PowerGraph}), rather than it moving one pipe per tick. */
+public final class PowerNetworkSolver {
+    private static final Map<World, PowerNetworkSolver> SOLVERS = new WeakHashMap<>();
+
+    private final Map<BlockPos, Network> networks = new HashMap<>();
+
+    public static void onWorldUnload(World world) {
+        SOLVERS.remove(world);
+    }
+
+    /** Invalidates every network that the given position (or any of its neighbours) is in. Called whenever a pipe
+     * changes its connections or is removed. */
+    public static void invalidate(World world, BlockPos pos) {
+        PowerNetworkSolver solver = SOLVERS.get(world);
+        if (solver != null) {
+            solver.invalidateAt(pos);
+            for (EnumFacing face : EnumFacing.VALUES) {
+                solver.invalidateAt(pos.offset(face));
+            }
+        }
+    }
+
+    private void invalidateAt(BlockPos pos) {
+        Network network = networks.remove(pos);
+        if (network != null && network.valid) {
+            network.valid = false;
+            for (PipeFlowPower flow : network.flows) {
+                networks.remove(flow.pipe.getHolder().getPipePos());
+            }
+        }
+    }
+
+    /** Moves the power in the network that the given flow is in, if this hasn't already been done this tick.
+     *
+     * @return True if the given flow has been ticked as part of a network, false if it should tick on its own. */
+    static boolean tick(PipeFlowPower flow) {
+        World world = flow.pipe.getHolder().getPipeWorld();
+        PowerNetworkSolver solver = SOLVERS.get(world);
+        if (solver == null) {
+            solver = new PowerNetworkSolver();
+            SOLVERS.put(world, solver);
+        }
+        Network network = flow.network;
+        if (network == null || !network.valid) {
+            network = buildNetwork(flow);
+            for (PipeFlowPower member : network.flows) {
+                member.network = network;
+                solver.networks.put(member.pipe.getHolder().getPipePos(), network);
+            }
+        }
+        long now = world.getTotalWorldTime();
+        if (network.lastTick != now) {
+            network.lastTick = now;
+            network.solved = network.solve();
+        }
+        return network.solved;
+    }
+
+    private static Network buildNetwork(PipeFlowPower start) {
+        Map<PipeFlowPower, Integer> indices = new HashMap<>();
+        List<PipeFlowPower> flows = new ArrayList<>();
+        Deque<PipeFlowPower> open = new ArrayDeque<>();
+        indices.put(start, 0);
+        flows.add(start);
+        open.add(start);
+        while (!open.isEmpty()) {
+            PipeFlowPower flow = open.poll();
+            for (EnumFacing face : EnumFacing.VALUES) {
+                PipeFlowPower other = getConnectedFlow(flow.pipe, face);
+                if (other != null && !indices.containsKey(other)) {
+                    indices.put(other, flows.size());
+                    flows.add(other);
+                    open.add(other);
+                }
+            }
+        }
+
+        int[][] neighbours = new int[flows.size()][];
+        for (int i = 0; i < flows.size(); i++) {
+            int[] arr = new int[6];
+            int count = 0;
+            for (EnumFacing face : EnumFacing.VALUES) {
+                PipeFlowPower other = getConnectedFlow(flows.get(i).pipe, face);
+                if (other != null) {
+                    arr[count++] = indices.get(other);
+                }
+            }
+            neighbours[i] = Arrays.copyOf(arr, count);
+        }
+        return new Network(flows, new PowerGraph(neighbours));
+    }
+
+    private static PipeFlowPower getConnectedFlow(IPipe pipe, EnumFacing face) {
+        if (!pipe.isConnected(face) || pipe.getConnectedType(face) != ConnectedType.PIPE) {
+            return null;
+        }
+        IPipe oPipe = pipe.getConnectedPipe(face);
+        if (oPipe == null || !(oPipe.getFlow() instanceof PipeFlowPower) || !oPipe.isConnected(face.getOpposite())) {
+            return null;
+        }
+        return (PipeFlowPower) oPipe.getFlow();
+    }
+
+    static final class Network {
+        final List<PipeFlowPower> flows;
+        final PowerGraph graph;
+        boolean valid = true;
+        long lastTick = Long.MIN_VALUE;
+        boolean solved;
+
+        private final long[] stored;
+        private final boolean[] source;
+        private int[] sinkNodes = new int[4];
+        private long[] requested = new long[4], sent = new long[4], delivered = new long[4];
+        private final List<IMjReceiver> sinks = new ArrayList<>();
+
+        Network(List<PipeFlowPower> flows, PowerGraph graph) {
+            this.flows = flows;
+            this.graph = graph;
+            this.stored = new long[flows.size()];
+            this.source = new boolean[flows.size()];
+        }
+
+        /** @return False if this network couldn't be solved as one (because a pipe changes how power is requested),
+         *         so every pipe should tick on its own instead. */
+        boolean solve() {
+            sinks.clear();
+            int sourceFaces = 0;
+            for (int i = 0; i < flows.size(); i++) {
+                PipeFlowPower flow = flows.get(i);
+                IPipe pipe = flow.pipe;
+                if (pipe.getHolder().getPipe() != pipe) {
+                    // Not been invalidated yet, but will be soon
+                    valid = false;
+                    return false;
+                }
+                if (pipe.getBehaviour() instanceof IPipeTransportPowerHook) {
+                    return false;
+                }
+                flow.ensureConfigured();
+                graph.maxPower[i] = flow.getMaxPower();
+                graph.powerLoss[i] = flow.getPowerLoss();
+                graph.powerResistance[i] = flow.getPowerResistance();
+                stored[i] = flow.getStoredPower();
+                source[i] = flow.isReceiver();
+
+                for (EnumFacing face : EnumFacing.VALUES) {
+                    if (pipe.getConnectedType(face) != ConnectedType.TILE) {
+                        continue;
+                    }
+                    if (source[i]) {
+                        sourceFaces++;
+                    }
+                    IMjReceiver receiver = pipe.getHolder().getCapabilityFromPipe(face, MjAPI.CAP_RECEIVER);
+                    if (receiver != null && receiver.canReceive()) {
+                        long req = receiver.getPowerRequested();
+                        if (req > 0) {
+                            addSink(i, receiver, req);
+                        }
+                    }
+                }
+            }
+
+            int sinkCount = sinks.size();
+            long totalDemand = graph.solve(stored, source, sinkCount, sinkNodes, requested,
+                BCTransportConfig.lossMode, sent, delivered);
+
+            long used = 0;
+            for (int i = 0; i < sinkCount; i++) {
+                if (delivered[i] <= 0) {
+                    continue;
+                }
+                long leftover = sinks.get(i).receivePower(delivered[i], false);
+                if (leftover <= 0) {
+                    used += sent[i];
+                } else if (leftover < delivered[i]) {
+                    used += (long) (sent[i] * ((delivered[i] - leftover) / (double) delivered[i]));
+                }
+            }
+            PowerGraph.drain(stored, used);
+
+            long left = 0;
+            for (int i = 0; i < flows.size(); i++) {
+                PipeFlowPower flow = flows.get(i);
+                flow.setStoredPower(stored[i]);
+                flow.setNetworkThroughput(graph.throughput[i]);
+                left += stored[i];
+            }
+
+            // Ask every engine (or anything else that sends power in) for an even share of what is still needed
+            long needed = Math.max(0, totalDemand - left);
+            long perFace = sourceFaces == 0 ? 0 : (needed + sourceFaces - 1) / sourceFaces;
+            for (int i = 0; i < flows.size(); i++) {
+                if (source[i]) {
+                    flows.get(i).networkPowerRequested = perFace;
+                }
+            }
+            sinks.clear();
+            return true;
+        }
+
+        private void addSink(int node, IMjReceiver receiver, long req) {
+            int index = sinks.size();
+            if (index == sinkNodes.length) {
+                int size = index * 2;
+                sinkNodes = Arrays.copyOf(sinkNodes, size);
+                requested = Arrays.copyOf(requested, size);
+                sent = Arrays.copyOf(sent, size);
+                delivered = Arrays.copyOf(delivered, size);
+            }
+            sinks.add(receiver);
+            sinkNodes[index] = node;
+            requested[index] = req;
+        }
+    }
+}
@@ -24,31 +24,40 @@ import buildcraft.lib.misc.StackUtil;
 import buildcraft.lib.misc.VecUtil;
 
 public class TravellingItem {
+    /** Shared by every server-side item, as they never need to look up a client stack. */
+    private static final Supplier<ItemStack> NO_CLIENT_LINK = () -> null;
+
+    // Layout of "flags"
+    private static final int MASK_TRIED = 0x3F;
+    private static final int SHIFT_SIDE = 6;
+    private static final int MASK_SIDE = 0x7 << SHIFT_SIDE;
+    private static final int SIDE_NONE = 7;
+    private static final int SHIFT_COLOUR = 9;
+    private static final int MASK_COLOUR = 0x1F << SHIFT_COLOUR;
+    private static final int FLAG_TO_CENTER = 1 << 14;
+    private static final int FLAG_PHANTOM = 1 << 15;
+
     // Client fields - public for rendering
     @Nonnull
     public final Supplier<ItemStack> clientItemLink;
     public int stackSize;
-    public EnumDyeColor colour;
 
     // Server fields
     /** The server itemstack */
     @Nullable
     ItemStack stack;
-    int id = 0;
-    boolean toCenter;
-    double speed = 0.05;
-    /** Absolute times (relative to world.getTotalWorldTime()) with when an item started to when it finishes. */
-    long tickStarted, tickFinished;
+    /** Packs the "tried" faces (bits 0-5), the side (bits 6-8, {@link #SIDE_NONE} for null), the colour (bits 9-13, 0
+     * for null), {@link #FLAG_TO_CENTER} and {@link #FLAG_PHANTOM} together to keep the per-item overhead down, as
+     * busy networks can hold hundreds of thousands of these. */
+    private int flags = SIDE_NONE << SHIFT_SIDE;
+    private double speed = 0.05;
+    /** Absolute time (relative to world.getTotalWorldTime()) of when an item started. The finishing time is
+     * {@link #getTickFinished()}. */
+    long tickStarted;
     /** Relative times (from tickStarted) until an event needs to be fired or this item needs changing. */
     int timeToDest;
-    /** If {@link #toCenter} is true then this represents the side that the item is coming from, otherwise this
-     * represents the side that the item is going to. */
-    EnumFacing side;
-    /** A set of all the faces that this item has tried to go and failed. */
-    EnumSet<EnumFacing> tried = EnumSet.noneOf(EnumFacing.class);
-    /** If true then events won't be fired for this, and this item won't be dropped by the pipe. However it will affect
-     * pipe.isEmpty and related gate triggers. */
-    boolean isPhantom = false;
+    /** The flow that this item was last scheduled in by {@link PipeItemScheduler}. */
+    PipeFlowItems owner;
 
     // @formatter:off
     /* States (server side):
@@ -67,9 +76,95 @@ public class TravellingItem {
      */
     // @formatter:on
 
+    // Packed accessors
+
+    /** If {@link #isToCenter()} is true then this represents the side that the item is coming from, otherwise this
+     * represents the side that the item is going to. */
+    @Nullable
+    public EnumFacing getSide() {
+        int s = (flags & MASK_SIDE) >>> SHIFT_SIDE;
+        return s == SIDE_NONE ? null : EnumFacing.VALUES[s];
+    }
+
+    void setSide(@Nullable EnumFacing side) {
+        int s = side == null ? SIDE_NONE : side.ordinal();
+        flags = (flags & ~MASK_SIDE) | (s << SHIFT_SIDE);
+    }
+
+    @Nullable
+    public EnumDyeColor getColour() {
+        int c = (flags & MASK_COLOUR) >>> SHIFT_COLOUR;
+        return c == 0 ? null : EnumDyeColor.byMetadata(c - 1);
+    }
+
+    void setColour(@Nullable EnumDyeColor colour) {
+        int c = colour == null ? 0 : colour.getMetadata() + 1;
+        flags = (flags & ~MASK_COLOUR) | (c << SHIFT_COLOUR);
+    }
+
+    public boolean isToCenter() {
+        return (flags & FLAG_TO_CENTER) != 0;
+    }
+
+    void setToCenter(boolean toCenter) {
+        flags = toCenter ? flags | FLAG_TO_CENTER : flags & ~FLAG_TO_CENTER;
+    }
+
+    /** If true then events won't be fired for this, and this item won't be dropped by the pipe. However it will affect
+     * pipe.isEmpty and related gate triggers. */
+    boolean isPhantom() {
+        return (flags & FLAG_PHANTOM) != 0;
+    }
+
+    void setPhantom(boolean phantom) {
+        flags = phantom ? flags | FLAG_PHANTOM : flags & ~FLAG_PHANTOM;
+    }
+
+    /** @return True if this item has already tried to go to the given face and failed. */
+    boolean hasTried(EnumFacing face) {
+        return (flags & (1 << face.ordinal())) != 0;
+    }
+
+    void addTried(EnumFacing face) {
+        flags |= 1 << face.ordinal();
+    }
+
+    /** @return A bitmask of every face that {@link #hasTried(EnumFacing)} returns true for. */
+    int getTriedMask() {
+        return flags & MASK_TRIED;
+    }
+
+    void addAllTried(TravellingItem from) {
+        flags |= from.flags & MASK_TRIED;
+    }
+
+    private EnumSet<EnumFacing> getTriedSet() {
+        EnumSet<EnumFacing> set = EnumSet.noneOf(EnumFacing.class);
+        for (EnumFacing face : EnumFacing.VALUES) {
+            if (hasTried(face)) {
+                set.add(face);
+            }
+        }
+        return set;
+    }
+
+    double getSpeed() {
+        return speed;
+    }
+
+    void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    /** @return The absolute time (relative to world.getTotalWorldTime()) of when this item will reach its
+     *         destination. */
+    public long getTickFinished() {
+        return tickStarted + timeToDest;
+    }
+
     public TravellingItem(@Nullable ItemStack stack) {
         this.stack = stack;
-        clientItemLink = () -> null;
+        clientItemLink = NO_CLIENT_LINK;
     }
 
     public TravellingItem(Supplier<ItemStack> clientStackLink, int count) {
@@ -79,48 +174,53 @@ public class TravellingItem {
     }
 
     public TravellingItem(NBTTagCompound nbt, long tickNow) {
-        clientItemLink = () -> null;
+        clientItemLink = NO_CLIENT_LINK;
         stack = ItemStack.loadItemStackFromNBT(nbt.getCompoundTag("stack"));
         int c = nbt.getByte("colour");
-        this.colour = c == 0 ? null : EnumDyeColor.byMetadata(c - 1);
-        this.toCenter = nbt.getBoolean("toCenter");
-        this.speed = nbt.getDouble("speed");
-        if (speed < 0.001) {
+        setColour(c == 0 ? null : EnumDyeColor.byMetadata(c - 1));
+        boolean toCenter = nbt.getBoolean("toCenter");
+        double nbtSpeed = nbt.getDouble("speed");
+        if (nbtSpeed < 0.001) {
             // Just to make sure that we don't have an invalid speed
-            speed = 0.001;
+            nbtSpeed = 0.001;
         }
+        setSpeed(nbtSpeed);
         tickStarted = nbt.getInteger("tickStarted") + tickNow;
-        tickFinished = nbt.getInteger("tickFinished") + tickNow;
         timeToDest = nbt.getInteger("timeToDest");
 
-        side = NBTUtilBC.readEnum(nbt.getTag("side"), EnumFacing.class);
+        EnumFacing side = NBTUtilBC.readEnum(nbt.getTag("side"), EnumFacing.class);
+        setSide(side);
         if (side == null || timeToDest == 0) {
             // Older 8.0.x. version
             toCenter = true;
         }
-        tried = NBTUtilBC.readEnumSet(nbt.getTag("tried"), EnumFacing.class);
-        isPhantom = nbt.getBoolean("isPhantom");
+        setToCenter(toCenter);
+        for (EnumFacing face : NBTUtilBC.readEnumSet(nbt.getTag("tried"), EnumFacing.class)) {
+            addTried(face);
+        }
+        setPhantom(nbt.getBoolean("isPhantom"));
     }
 
     public NBTTagCompound writeToNbt(long tickNow) {
         NBTTagCompound nbt = new NBTTagCompound();
         nbt.setTag("stack", stack != null ? stack.serializeNBT() : new NBTTagCompound());
+        EnumDyeColor colour = getColour();
         nbt.setByte("colour", (byte) (colour == null ? 0 : colour.getMetadata() + 1));
-        nbt.setBoolean("toCenter", toCenter);
+        nbt.setBoolean("toCenter", isToCenter());
         nbt.setDouble("speed", speed);
         nbt.setInteger("tickStarted", (int) (tickStarted - tickNow));
-        nbt.setInteger("tickFinished", (int) (tickFinished - tickNow));
+        nbt.setInteger("tickFinished", (int) (getTickFinished() - tickNow));
         nbt.setInteger("timeToDest", timeToDest);
-        nbt.setTag("side", NBTUtilBC.writeEnum(side));
-        nbt.setTag("tried", NBTUtilBC.writeEnumSet(tried, EnumFacing.class));
-        if (isPhantom) {
+        nbt.setTag("side", NBTUtilBC.writeEnum(getSide()));
+        nbt.setTag("tried", NBTUtilBC.writeEnumSet(getTriedSet(), EnumFacing.class));
+        if (isPhantom()) {
             nbt.setBoolean("isPhantom", true);
         }
         return nbt;
     }
 
     public int getCurrentDelay(long tickNow) {
-        long diff = tickFinished - tickNow;
+        long diff = getTickFinished() - tickNow;
         if (diff < 0) {
             return 0;
         } else {
@@ -129,7 +229,7 @@ public class TravellingItem {
     }
 
     public double getWayThrough(long now) {
-        long diff = tickFinished - tickStarted;
+        long diff = timeToDest;
         long nowDiff = now - tickStarted;
         return nowDiff / (double) diff;
     }
@@ -137,17 +237,16 @@ public class TravellingItem {
     public void genTimings(long now, double distance) {
         tickStarted = now;
         timeToDest = (int) Math.ceil(distance / speed);
-        tickFinished = now + timeToDest;
     }
 
     public boolean canMerge(TravellingItem with) {
-        if (isPhantom || with.isPhantom) {
+        if (isPhantom() || with.isPhantom()) {
             return false;
         }
-        return toCenter == with.toCenter//
-            && colour == with.colour//
-            && side == with.side//
-            && Math.abs(tickFinished - with.tickFinished) < 10//
+        // Compares the side, colour and direction in one go
+        int mask = MASK_SIDE | MASK_COLOUR | FLAG_TO_CENTER;
+        return (flags & mask) == (with.flags & mask)//
+            && Math.abs(getTickFinished() - with.getTickFinished()) < 10//
             && stack.getMaxStackSize() >= stack.stackSize + with.stack.stackSize//
             && StackUtil.canMerge(stack, with.stack);
     }
@@ -165,7 +264,7 @@ public class TravellingItem {
     }
 
     public Vec3d interpolatePosition(Vec3d start, Vec3d end, long tick, float partialTicks) {
-        long diff = tickFinished - tickStarted;
+        long diff = timeToDest;
         long nowDiff = tick - tickStarted;
         double sinceStart = nowDiff + partialTicks;
         double interpMul = sinceStart / diff;
@@ -180,18 +279,19 @@ public class TravellingItem {
     }
 
     public Vec3d getRenderPosition(BlockPos pos, long tick, float partialTicks) {
-        long diff = tickFinished - tickStarted;
+        long diff = timeToDest;
         long afterTick = tick - tickStarted;
 
         float interp = (afterTick + partialTicks) / diff;
         interp = Math.max(0, Math.min(1, interp));
 
         Vec3d center = new Vec3d(pos).addVector(0.5, 0.5, 0.5);
+        EnumFacing side = getSide();
         Vec3d vecSide = side == null ? center : VecUtil.offset(center, side, 0.5);
 
         Vec3d vecFrom;
         Vec3d vecTo;
-        if (toCenter) {
+        if (isToCenter()) {
             vecFrom = vecSide;
             vecTo = center;
         } else {
@@ -203,12 +303,8 @@ public class TravellingItem {
     }
 
     public EnumFacing getRenderDirection(long tick, float partialTicks) {
-        long diff = tickFinished - tickStarted;
-        long afterTick = tick - tickStarted;
-
-        float interp = (afterTick + partialTicks) / diff;
-        interp = Math.max(0, Math.min(1, interp));
-        if (toCenter) {
+        EnumFacing side = getSide();
+        if (isToCenter()) {
             return side == null ? null : side.getOpposite();
         } else {
             return side;
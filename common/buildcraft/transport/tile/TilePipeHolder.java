@@ -53,7 +53,11 @@ import buildcraft.lib.tile.TileBC_Neptune;
 
 import buildcraft.transport.pipe.Pipe;
 import buildcraft.transport.pipe.PipeEventBus;
+import buildcraft.transport.pipe.PipeNetworkGraph;
 import buildcraft.transport.pipe.PluggableHolder;
+import buildcraft.transport.pipe.flow.FluidSegmentSolver;
+import buildcraft.transport.pipe.flow.PipeFlowItems;
+import buildcraft.transport.pipe.flow.PowerNetworkSolver;
 import buildcraft.transport.plug.FilterEventHandler;
 import buildcraft.transport.wire.WireManager;
 
@@ -209,12 +213,28 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
                 neighbourTiles.put(face, new WeakReference<>(tile));
             }
         }
+        invalidateNetworkGraph();
+    }
+
+    private void invalidateNetworkGraph() {
+        if (worldObj != null && !worldObj.isRemote) {
+            PipeNetworkGraph.invalidate(worldObj, getPos());
+            FluidSegmentSolver.invalidate(worldObj, getPos());
+            PowerNetworkSolver.invalidate(worldObj, getPos());
+        }
     }
 
     @Override
     public void invalidate() {
         super.invalidate();
         wireManager.removeParts(new ArrayList<>(wireManager.parts.keySet()));
+        invalidateNetworkGraph();
+    }
+
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        invalidateNetworkGraph();
     }
 
     @Override
@@ -464,6 +484,17 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder, ITick
     @Override
     public void scheduleNetworkUpdate(PipeMessageReceiver... parts) {
         Collections.addAll(networkUpdates, parts);
+        for (PipeMessageReceiver part : parts) {
+            if (part != PipeMessageReceiver.FLOW && part != PipeMessageReceiver.WIRES) {
+                // The behaviour or a pluggable changed, which can change how items are routed through this pipe.
+                // Neither can change which pipes are connected or which are sinks without the connections changing
+                // as well (which invalidates the whole network), so only this pipe's own routes need dropping.
+                if (pipe != null && pipe.getFlow() instanceof PipeFlowItems) {
+                    ((PipeFlowItems) pipe.getFlow()).invalidateRouteCache();
+                }
+                break;
+            }
+        }
     }
 
     @Override
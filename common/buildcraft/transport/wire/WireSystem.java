@@ -51,6 +51,9 @@ import buildcraft.transport.plug.PluggableGate;
 public class WireSystem {
     public final List<WireElement> elements = new ArrayList<>();
     public EnumDyeColor color = null;
+    /** Cached from {@link #elements} the first time that they are needed after building or reading. */
+    private Set<ChunkPos> chunkPoses = null;
+    private Integer wiresHashCode = null;
 
     public boolean hasElement(WireElement element) {
         return elements.contains(element);
@@ -150,6 +153,7 @@ public class WireSystem {
         while (!queue.isEmpty()) {
             build.accept(queue.remove());
         }
+        invalidateCaches();
         return this;
     }
 
@@ -162,8 +166,16 @@ public class WireSystem {
             false);
     }
 
-    public List<ChunkPos> getChunkPoses() {
-        return elements.stream().map(element -> element.blockPos).map(ChunkPos::new).collect(Collectors.toList());
+    private void invalidateCaches() {
+        chunkPoses = null;
+        wiresHashCode = null;
+    }
+
+    public Set<ChunkPos> getChunkPoses() {
+        if (chunkPoses == null) {
+            chunkPoses = elements.stream().map(element -> element.blockPos).map(ChunkPos::new).collect(Collectors.toSet());
+        }
+        return chunkPoses;
     }
 
     public boolean isPlayerWatching(EntityPlayerMP player) {
@@ -176,7 +188,10 @@ public class WireSystem {
     }
 
     public int getWiresHashCode() {
-        return elements.stream().filter(element -> element.type == WireElement.Type.WIRE_PART).collect(Collectors.toList()).hashCode();
+        if (wiresHashCode == null) {
+            wiresHashCode = elements.stream().filter(element -> element.type == WireElement.Type.WIRE_PART).collect(Collectors.toList()).hashCode();
+        }
+        return wiresHashCode;
     }
 
     public NBTTagCompound writeToNBT() {
@@ -193,6 +208,7 @@ public class WireSystem {
         NBTTagList elementsList = nbt.getTagList("elements", Constants.NBT.TAG_COMPOUND);
         IntStream.range(0, elementsList.tagCount()).mapToObj(elementsList::getCompoundTagAt).map(WireElement::new).forEach(elements::add);
         color = EnumDyeColor.byMetadata(nbt.getInteger("color"));
+        invalidateCaches();
         return this;
     }
 
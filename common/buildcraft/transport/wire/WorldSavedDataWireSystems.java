@@ -8,23 +8,26 @@ package buildcraft.transport.wire;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import com.google.common.base.Predicates;
 
-import org.apache.commons.lang3.tuple.Pair;
-
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.EnumDyeColor;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldSavedData;
+import net.minecraft.world.WorldServer;
 import net.minecraft.world.storage.MapStorage;
 
 import net.minecraftforge.common.util.Constants;
@@ -40,11 +43,22 @@ import buildcraft.transport.plug.PluggableGate;
 public class WorldSavedDataWireSystems extends WorldSavedData {
     public static final String DATA_NAME = "buildcraft_wire_systems";
     public World world;
+    /** Every wire system in this world, and whether it is powered. Use {@link #addWireSystem(WireSystem, boolean)} and
+     * {@link #removeWireSystem(WireSystem)} rather than changing this directly, so that
+     * {@link #elementsToWireSystems} stays in sync. */
     public final Map<WireSystem, Boolean> wireSystems = new HashMap<>();
+    /** Every wire system that each element is in. */
+    private final Map<WireSystem.WireElement, List<WireSystem>> elementsToWireSystems = new HashMap<>();
+    /** Every wire system that has an element in each chunk. */
+    private final Map<ChunkPos, List<WireSystem>> chunksToWireSystems = new HashMap<>();
+    /** If true then every wire system will be updated next tick, rather than just those in {@link #changedEmitters}. */
     public boolean gatesChanged = true;
+    /** The emitters that have changed what they are emitting since the last tick. */
+    private final Set<WireSystem.WireElement> changedEmitters = new HashSet<>();
     public boolean structureChanged = true;
-    public final List<WireSystem> changedSystems = new ArrayList<>();
-    public final List<EntityPlayerMP> changedPlayers = new ArrayList<>();
+    public final Set<WireSystem> changedSystems = new HashSet<>();
+    /** The players that need to be sent every wire system that they can see, as they can now see different ones. */
+    public final Set<EntityPlayerMP> changedPlayers = new HashSet<>();
     public final Map<WireSystem.WireElement, IWireEmitter> emittersCache = new HashMap<>();
 
     public WorldSavedDataWireSystems() {
@@ -61,20 +75,75 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
         emittersCache.clear();
     }
 
+    /** Marks the given emitter as having changed what it emits, so that only the wire systems it is in are updated
+     * next tick. */
+    public void markEmitterChanged(WireSystem.WireElement emitter) {
+        changedEmitters.add(emitter);
+    }
+
     public List<WireSystem> getWireSystemsWithElement(WireSystem.WireElement element) {
-        return wireSystems.keySet().stream().filter(wireSystem -> wireSystem.hasElement(element)).collect(Collectors.toList());
+        List<WireSystem> systems = elementsToWireSystems.get(element);
+        return systems == null ? Collections.emptyList() : new ArrayList<>(systems);
+    }
+
+    private void addWireSystem(WireSystem wireSystem, boolean powered) {
+        if (wireSystems.put(wireSystem, powered) == null) {
+            wireSystem.elements.forEach(element -> addToIndex(elementsToWireSystems, element, wireSystem));
+            wireSystem.getChunkPoses().forEach(chunkPos -> addToIndex(chunksToWireSystems, chunkPos, wireSystem));
+        }
     }
 
     public void removeWireSystem(WireSystem wireSystem) {
-        wireSystems.remove(wireSystem);
+        if (wireSystems.remove(wireSystem) != null) {
+            wireSystem.elements.forEach(element -> removeFromIndex(elementsToWireSystems, element, wireSystem));
+            wireSystem.getChunkPoses().forEach(chunkPos -> removeFromIndex(chunksToWireSystems, chunkPos, wireSystem));
+        }
         markStructureChanged();
     }
 
+    private static <K> void addToIndex(Map<K, List<WireSystem>> index, K key, WireSystem wireSystem) {
+        List<WireSystem> systems = index.computeIfAbsent(key, k -> new ArrayList<>(1));
+        if (!systems.contains(wireSystem)) {
+            systems.add(wireSystem);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, List<WireSystem>> index, K key, WireSystem wireSystem) {
+        List<WireSystem> systems = index.get(key);
+        if (systems != null) {
+            systems.remove(wireSystem);
+            if (systems.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /** Called whenever a player starts or stops watching a chunk. The player is only sent every wire system that they
+     * can see again if there are any in that chunk. */
+    public void onChunkWatch(EntityPlayerMP player, ChunkPos chunkPos) {
+        if (chunksToWireSystems.containsKey(chunkPos)) {
+            changedPlayers.add(player);
+        }
+    }
+
+    private Set<WireSystem> getWatchedWireSystems(EntityPlayerMP player) {
+        Set<WireSystem> watched = new HashSet<>();
+        if (world instanceof WorldServer) {
+            PlayerChunkMap playerChunkMap = ((WorldServer) world).getPlayerChunkMap();
+            chunksToWireSystems.forEach((chunkPos, systems) -> {
+                PlayerChunkMapEntry entry = playerChunkMap.getEntry(chunkPos.chunkXPos, chunkPos.chunkZPos);
+                if (entry != null && entry.hasPlayerMatching(Predicates.equalTo(player))) {
+                    watched.addAll(systems);
+                }
+            });
+        }
+        return watched;
+    }
+
     public void buildAndAddWireSystem(WireSystem.WireElement element) {
         WireSystem wireSystem = new WireSystem().build(this, element);
         if(!wireSystem.isEmpty()) {
-            wireSystems.put(wireSystem, false);
-            wireSystems.put(wireSystem, wireSystem.update(this));
+            addWireSystem(wireSystem, wireSystem.update(this));
         }
         markStructureChanged();
     }
@@ -119,31 +188,22 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
 
     public void tick() {
         if(gatesChanged) {
-            wireSystems.keySet().stream()
-                    .filter(wireSystem -> {
-                        boolean newPowered = wireSystem.update(this);
-                        return wireSystems.put(wireSystem, newPowered) != newPowered;
-                    })
-                    .forEach(changedSystems::add);
-        }
-        world.getPlayers(EntityPlayerMP.class, Predicates.alwaysTrue()).forEach(player -> {
-            Map<Integer, WireSystem> changedWires = this.wireSystems.keySet().stream()
-                    .filter(wireSystem -> wireSystem.isPlayerWatching(player) && (structureChanged || changedPlayers.contains(player)))
-                    .collect(Collectors.toMap(WireSystem::getWiresHashCode, Function.identity()));
-            if(!changedWires.isEmpty()) {
-                MessageManager.sendTo(new MessageWireSystems(changedWires), player);
-            }
-            Map<Integer, Boolean> hashesPowered = this.wireSystems.entrySet().stream()
-                    .filter(systemPower ->
-                            systemPower.getKey().isPlayerWatching(player) &&
-                                    (structureChanged || changedSystems.contains(systemPower.getKey()) || changedPlayers.contains(player))
-                    )
-                    .map(systemPowered -> Pair.of(systemPowered.getKey().getWiresHashCode(), systemPowered.getValue()))
-                    .collect(Collectors.toMap(Pair::getLeft, Pair::getRight));
-            if(!hashesPowered.isEmpty()) {
-                MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
+            wireSystems.keySet().forEach(this::updateWireSystem);
+        } else if (!changedEmitters.isEmpty()) {
+            Set<WireSystem> toUpdate = new HashSet<>();
+            for (WireSystem.WireElement emitter : changedEmitters) {
+                List<WireSystem> systems = elementsToWireSystems.get(emitter);
+                if (systems != null) {
+                    toUpdate.addAll(systems);
+                }
             }
-        });
+            toUpdate.forEach(this::updateWireSystem);
+        }
+        gatesChanged = false;
+        changedEmitters.clear();
+        if (structureChanged || !changedPlayers.isEmpty() || !changedSystems.isEmpty()) {
+            world.getPlayers(EntityPlayerMP.class, Predicates.alwaysTrue()).forEach(this::sendChanges);
+        }
         if(structureChanged || !changedSystems.isEmpty()) {
             markDirty();
         }
@@ -152,6 +212,36 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
         changedPlayers.clear();
     }
 
+    private void sendChanges(EntityPlayerMP player) {
+        Map<Integer, Boolean> hashesPowered = new HashMap<>();
+        if (structureChanged || changedPlayers.contains(player)) {
+            Map<Integer, WireSystem> watchedWires = new HashMap<>();
+            for (WireSystem wireSystem : getWatchedWireSystems(player)) {
+                watchedWires.put(wireSystem.getWiresHashCode(), wireSystem);
+                hashesPowered.put(wireSystem.getWiresHashCode(), wireSystems.get(wireSystem));
+            }
+            if(!watchedWires.isEmpty()) {
+                MessageManager.sendTo(new MessageWireSystems(watchedWires), player);
+            }
+        } else {
+            for (WireSystem wireSystem : changedSystems) {
+                if (wireSystem.isPlayerWatching(player)) {
+                    hashesPowered.put(wireSystem.getWiresHashCode(), wireSystems.get(wireSystem));
+                }
+            }
+        }
+        if(!hashesPowered.isEmpty()) {
+            MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
+        }
+    }
+
+    private void updateWireSystem(WireSystem wireSystem) {
+        boolean newPowered = wireSystem.update(this);
+        if (wireSystems.put(wireSystem, newPowered) != newPowered) {
+            changedSystems.add(wireSystem);
+        }
+    }
+
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound nbt) {
         NBTTagList entriesList = new NBTTagList();
@@ -168,10 +258,12 @@ public class WorldSavedDataWireSystems extends WorldSavedData {
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         wireSystems.clear();
+        elementsToWireSystems.clear();
+        chunksToWireSystems.clear();
         NBTTagList entriesList = nbt.getTagList("entries", Constants.NBT.TAG_COMPOUND);
         for(int i = 0; i < entriesList.tagCount(); i++) {
             NBTTagCompound entry = entriesList.getCompoundTagAt(i);
-            wireSystems.put(new WireSystem().readFromNBT(entry.getCompoundTag("wireSystem")), entry.getBoolean("powered"));
+            addWireSystem(new WireSystem().readFromNBT(entry.getCompoundTag("wireSystem")), entry.getBoolean("powered"));
         }
     }
 
@@ -0,0 +1,73 @@
+package buildcraft.test.lib.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+
+import buildcraft.lib.misc.BlockUtil;
+
+import buildcraft.test.VanillaSetupBaseTester;
+
+public class BlockUtilTester extends VanillaSetupBaseTester {
+    private static final BlockPos POS = new BlockPos(10, 64, -3);
+
+    @Test
+    public void testCaptureOnlyInsideBlock() {
+        ItemStack inside = new ItemStack(Items.APPLE);
+        ItemStack neighbour = new ItemStack(Items.STICK);
+        List<ItemStack> drops = new ArrayList<>();
+        boolean[] captured = new boolean[2];
+        BlockUtil.captureDrops(null, POS, drops, () -> {
+            captured[0] = BlockUtil.captureDrop(null, 10.5, 64.2, -2.9, inside);
+            // A torch popping off of the block above
+            captured[1] = BlockUtil.captureDrop(null, 10.5, 65.5, -2.5, neighbour);
+        });
+        Assert.assertTrue(captured[0]);
+        Assert.assertFalse(captured[1]);
+        Assert.assertEquals(1, drops.size());
+        Assert.assertSame(inside, drops.get(0));
+    }
+
+    @Test
+    public void testRestore() {
+        List<ItemStack> drops = new ArrayList<>();
+        BlockUtil.captureDrops(null, POS, drops, () -> {});
+        Assert.assertFalse(BlockUtil.captureDrop(null, 10.5, 64.5, -2.5, new ItemStack(Items.APPLE)));
+        Assert.assertTrue(drops.isEmpty());
+
+        try {
+            BlockUtil.captureDrops(null, POS, drops, () -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail("Expected the exception to be rethrown");
+        } catch (IllegalStateException ignored) {
+            // Expected
+        }
+        Assert.assertFalse(BlockUtil.captureDrop(null, 10.5, 64.5, -2.5, new ItemStack(Items.APPLE)));
+    }
+
+    @Test
+    public void testNestedCapture() {
+        BlockPos inner = POS.up();
+        List<ItemStack> outerDrops = new ArrayList<>();
+        List<ItemStack> innerDrops = new ArrayList<>();
+        BlockUtil.captureDrops(null, POS, outerDrops, () -> {
+            BlockUtil.captureDrops(null, inner, innerDrops, () -> {
+                BlockUtil.captureDrop(null, 10.5, 65.5, -2.5, new ItemStack(Items.STICK));
+                // Only the innermost capture is used
+                BlockUtil.captureDrop(null, 10.5, 64.5, -2.5, new ItemStack(Items.APPLE));
+            });
+            BlockUtil.captureDrop(null, 10.5, 64.5, -2.5, new ItemStack(Items.APPLE));
+        });
+        Assert.assertEquals(1, innerDrops.size());
+        Assert.assertEquals(Items.STICK, innerDrops.get(0).getItem());
+        Assert.assertEquals(1, outerDrops.size());
+        Assert.assertEquals(Items.APPLE, outerDrops.get(0).getItem());
+    }
+}
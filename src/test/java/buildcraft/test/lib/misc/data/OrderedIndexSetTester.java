@@ -0,0 +1,56 @@
+package buildcraft.test.lib.misc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.lib.misc.data.OrderedIndexSet;
+
+public class OrderedIndexSetTester {
+    @Test
+    public void testOrder() {
+        OrderedIndexSet set = new OrderedIndexSet(new int[] { 4, 0, 3, 1, 2 });
+        Assert.assertTrue(set.add(1));
+        Assert.assertTrue(set.add(4));
+        Assert.assertTrue(set.add(2));
+        Assert.assertFalse(set.add(4));
+        Assert.assertEquals(3, set.size());
+        Assert.assertEquals(Arrays.asList(4, 1, 2), toList(set.iterator()));
+
+        Assert.assertTrue(set.remove(4));
+        Assert.assertFalse(set.remove(0));
+        Assert.assertFalse(set.contains(4));
+        Assert.assertEquals(2, set.size());
+        Assert.assertEquals(Arrays.asList(1, 2), toList(set.iterator()));
+
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.iterator().hasNext());
+    }
+
+    @Test
+    public void testChangeWhileIterating() {
+        OrderedIndexSet set = new OrderedIndexSet(new int[] { 0, 1, 2, 3, 4, 5 });
+        set.add(0);
+        set.add(2);
+        set.add(4);
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        Assert.assertEquals(0, iterator.nextInt());
+        Assert.assertEquals(2, iterator.nextInt());
+        set.add(1);
+        set.remove(4);
+        set.add(5);
+        Assert.assertEquals(5, iterator.nextInt());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    private static List<Integer> toList(PrimitiveIterator.OfInt iterator) {
+        List<Integer> list = new ArrayList<>();
+        iterator.forEachRemaining((int i) -> list.add(i));
+        return list;
+    }
+}
@@ -0,0 +1,57 @@
+package buildcraft.test.lib.misc.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.lib.misc.data.PositionTree;
+
+public class PositionTreeTester {
+    @Test
+    public void testAdd() {
+        PositionTree tree = new PositionTree();
+        int root = tree.add(10, PositionTree.NO_PARENT);
+        int child = tree.add(11, root);
+        Assert.assertEquals(child, tree.add(11, PositionTree.NO_PARENT));
+        Assert.assertEquals(root, tree.getParent(child));
+        Assert.assertEquals(11, tree.getPos(child));
+        Assert.assertEquals(child, tree.indexOf(11));
+        Assert.assertEquals(-1, tree.indexOf(12));
+
+        // More than the initial capacity
+        int last = child;
+        for (int i = 0; i < 100; i++) {
+            last = tree.add(100 + i, last);
+        }
+        Assert.assertEquals(102, tree.size());
+        Assert.assertEquals(199, tree.getPos(last));
+
+        tree.clear();
+        Assert.assertEquals(0, tree.size());
+        Assert.assertEquals(-1, tree.indexOf(10));
+    }
+
+    @Test
+    public void testPathClear() {
+        PositionTree tree = new PositionTree();
+        int root = tree.add(0, PositionTree.NO_PARENT);
+        int a = tree.add(1, root);
+        int b = tree.add(2, a);
+        int other = tree.add(3, root);
+
+        tree.setBlocked(b, true);
+        // Only the nodes before it are checked
+        Assert.assertTrue(tree.isPathClear(b));
+
+        tree.setBlocked(a, true);
+        Assert.assertFalse(tree.isPathClear(b));
+        Assert.assertTrue(tree.isPathClear(a));
+        Assert.assertTrue(tree.isPathClear(other));
+
+        tree.setBlocked(a, false);
+        Assert.assertTrue(tree.isPathClear(b));
+
+        tree.setBlocked(root, true);
+        Assert.assertFalse(tree.isPathClear(b));
+        Assert.assertFalse(tree.isPathClear(other));
+    }
+}
@@ -0,0 +1,45 @@
+package buildcraft.test.lib.misc.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.lib.misc.data.SteppedProgress;
+
+public class SteppedProgressTester {
+    @Test
+    public void testStep() {
+        Assert.assertEquals(0, SteppedProgress.getStep(0, 3200));
+        Assert.assertEquals(0, SteppedProgress.getStep(99, 3200));
+        Assert.assertEquals(1, SteppedProgress.getStep(100, 3200));
+        Assert.assertEquals(SteppedProgress.STEPS - 1, SteppedProgress.getStep(3199, 3200));
+        Assert.assertEquals(SteppedProgress.STEPS, SteppedProgress.getStep(3200, 3200));
+        Assert.assertEquals(SteppedProgress.STEPS, SteppedProgress.getStep(5, 0));
+    }
+
+    @Test
+    public void testExtrapolation() {
+        long target = 3200;
+        SteppedProgress progress = new SteppedProgress();
+        progress.receive(0);
+        for (int i = 0; i < 10; i++) {
+            progress.tick(target);
+        }
+        // 10 per tick
+        progress.receive(100);
+        Assert.assertEquals(110, progress.tick(target));
+        Assert.assertEquals(120, progress.tick(target));
+        for (int i = 0; i < 10; i++) {
+            progress.tick(target);
+        }
+        // Never past the next step
+        Assert.assertEquals(200, progress.getValue());
+
+        // 100 in 12 ticks
+        progress.receive(200);
+        Assert.assertEquals(208, progress.tick(target));
+
+        // A new task restarts from what was received
+        progress.receive(50);
+        Assert.assertEquals(50, progress.tick(target));
+    }
+}
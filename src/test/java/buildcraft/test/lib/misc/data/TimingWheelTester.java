@@ -0,0 +1,50 @@
+package buildcraft.test.lib.misc.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.lib.misc.data.TimingWheel;
+
+public class TimingWheelTester {
+    @Test
+    public void testOrdering() {
+        long start = 1_000_003;
+        TimingWheel<Long> wheel = new TimingWheel<>(Long::longValue, start);
+        long[] deadlines = { start - 5, start + 1, start + 63, start + 64, start + 65, start + 4095, start + 4097,
+            start + 300_000, start + 20_000_000 };
+        for (long deadline : deadlines) {
+            wheel.add(deadline);
+        }
+        Assert.assertEquals(deadlines.length, wheel.size());
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = start + 1; tick <= start + 20_000_000; tick++) {
+            final long now = tick;
+            wheel.advanceTo(tick, val -> {
+                Assert.assertEquals(Math.max(val, start + 1), now);
+                fired.add(val);
+            });
+        }
+        Assert.assertEquals(deadlines.length, fired.size());
+        Assert.assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testReAdd() {
+        TimingWheel<long[]> wheel = new TimingWheel<>(arr -> arr[0], 0);
+        long[] element = { 3 };
+        wheel.add(element);
+        int[] count = { 0 };
+        for (long tick = 1; tick <= 30; tick++) {
+            wheel.advanceTo(tick, arr -> {
+                count[0]++;
+                arr[0] += 3;
+                wheel.add(arr);
+            });
+        }
+        Assert.assertEquals(10, count[0]);
+    }
+}
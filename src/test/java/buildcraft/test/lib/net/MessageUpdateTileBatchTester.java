@@ -0,0 +1,81 @@
+package buildcraft.test.lib.net;
+
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+
+import buildcraft.lib.net.MessageUpdateTileBatch;
+
+public class MessageUpdateTileBatchTester {
+    private static byte[] roundTrip(byte[] bytes) throws DataFormatException {
+        ByteBuf batch = Unpooled.wrappedBuffer(bytes);
+        MessageUpdateTileBatch message = MessageUpdateTileBatch.create(batch);
+        // create() mustn't change the batch
+        Assert.assertEquals(bytes.length, batch.readableBytes());
+
+        ByteBuf buf = Unpooled.buffer();
+        message.toBytes(buf);
+        MessageUpdateTileBatch read = new MessageUpdateTileBatch();
+        read.fromBytes(buf);
+        Assert.assertFalse(buf.isReadable());
+        return read.getUncompressed();
+    }
+
+    @Test
+    public void testSmall() throws DataFormatException {
+        byte[] bytes = { 1, 2, 3, 4, 5 };
+        Assert.assertArrayEquals(bytes, roundTrip(bytes));
+        Assert.assertArrayEquals(new byte[0], roundTrip(new byte[0]));
+    }
+
+    @Test
+    public void testCompressed() throws DataFormatException {
+        // Repetitive, so it's worth compressing
+        byte[] bytes = new byte[10_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 7);
+        }
+        Assert.assertArrayEquals(bytes, roundTrip(bytes));
+    }
+
+    @Test
+    public void testIncompressible() throws DataFormatException {
+        byte[] bytes = new byte[10_000];
+        new Random(42).nextBytes(bytes);
+        Assert.assertArrayEquals(bytes, roundTrip(bytes));
+    }
+
+    private static void assertRejected(boolean compressed, int uncompressedLength, int length, int sent) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBoolean(compressed);
+        buf.writeInt(uncompressedLength);
+        buf.writeInt(length);
+        buf.writeZero(sent);
+        try {
+            new MessageUpdateTileBatch().fromBytes(buf);
+            Assert.fail("Expected the message to be rejected");
+        } catch (DecoderException ignored) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testMalformed() {
+        // More data than was sent
+        assertRejected(true, 100, 1_000_000, 10);
+        assertRejected(false, Integer.MAX_VALUE, Integer.MAX_VALUE, 10);
+        // A small amount of data that claims to inflate into something huge
+        assertRejected(true, Integer.MAX_VALUE, 10, 10);
+        // Negative lengths
+        assertRejected(true, -1, 10, 10);
+        assertRejected(true, 100, -1, 10);
+        // Uncompressed data that doesn't match its length
+        assertRejected(false, 100, 10, 10);
+    }
+}
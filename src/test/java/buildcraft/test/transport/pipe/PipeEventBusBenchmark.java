@@ -0,0 +1,140 @@
+package buildcraft.test.transport.pipe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import buildcraft.api.transport.pipe.PipeEvent;
+import buildcraft.api.transport.pipe.PipeEventActionActivate;
+import buildcraft.api.transport.pipe.PipeEventFluid;
+import buildcraft.api.transport.pipe.PipeEventHandler;
+import buildcraft.api.transport.pipe.PipeEventItem;
+
+import buildcraft.transport.pipe.PipeEventBus;
+
+/** Measures the cost of {@link PipeEventBus#fireEvent(PipeEvent)} for a pipe with a typical number of handlers, only
+ * one of which handles the event being fired. "linear" is the old behaviour of testing every handler and calling it
+ * through a bound {@link MethodHandle}, for comparison. Run with {@link #main(String[])}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PipeEventBusBenchmark {
+    @Param({ "linear", "method_handle", "generated" })
+    public String mode;
+
+    private PipeEventBus bus;
+    private final List<LinearHandler> linearHandlers = new ArrayList<>();
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PipeEventBusBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        PipeEventBus.useGeneratedInvokers = "generated".equals(mode);
+        bus = new PipeEventBus();
+        // Roughly the handlers that an item pipe with a behaviour and a couple of pluggables would register
+        Object[] handlers = { new Behaviour(), new Flow(), new Pluggable(), new Pluggable() };
+        for (Object handler : handlers) {
+            bus.registerHandler(handler);
+            for (Method m : handler.getClass().getMethods()) {
+                if (m.isAnnotationPresent(PipeEventHandler.class)) {
+                    MethodHandle mh = MethodHandles.publicLookup().unreflect(m).bindTo(handler);
+                    linearHandlers.add(new LinearHandler(m.getParameterTypes()[0], mh));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public double fireModifySpeed() throws Throwable {
+        PipeEventItem.ModifySpeed event = new PipeEventItem.ModifySpeed(null, null, null, 1);
+        if ("linear".equals(mode)) {
+            for (LinearHandler handler : linearHandlers) {
+                if (handler.classHandled.isAssignableFrom(event.getClass())) {
+                    handler.handle.invoke(event);
+                }
+            }
+        } else {
+            bus.fireEvent(event);
+        }
+        return event.targetSpeed;
+    }
+
+    static class LinearHandler {
+        final Class<?> classHandled;
+        final MethodHandle handle;
+
+        LinearHandler(Class<?> classHandled, MethodHandle handle) {
+            this.classHandled = classHandled;
+            this.handle = handle;
+        }
+    }
+
+    public static class Behaviour {
+        @PipeEventHandler
+        public void sideCheck(PipeEventItem.SideCheck event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+
+        @PipeEventHandler
+        public void modifySpeed(PipeEventItem.ModifySpeed event) {
+            event.targetSpeed = 1;
+        }
+
+        @PipeEventHandler
+        public void reachCenter(PipeEventItem.ReachCenter event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+
+        @PipeEventHandler
+        public void actionActivate(PipeEventActionActivate event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+    }
+
+    public static class Flow {
+        @PipeEventHandler
+        public void fluidSideCheck(PipeEventFluid.SideCheck event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+
+        @PipeEventHandler
+        public void drop(PipeEventItem.Drop event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+    }
+
+    public static class Pluggable {
+        @PipeEventHandler
+        public void sideCheck(PipeEventItem.SideCheck event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+
+        @PipeEventHandler
+        public void tryBounce(PipeEventItem.TryBounce event) {
+            PipeEventBusTester.dontInlineThis++;
+        }
+    }
+}
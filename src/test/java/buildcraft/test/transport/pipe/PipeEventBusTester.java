@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import buildcraft.api.transport.pipe.PipeEventHandler;
 import buildcraft.api.transport.pipe.PipeEventItem;
+import buildcraft.api.transport.pipe.PipeEventPriority;
 
 import buildcraft.transport.pipe.PipeEventBus;
 
@@ -59,6 +60,31 @@ public class PipeEventBusTester {
         Assert.assertEquals(3, event.targetSpeed, 0.00001);
     }
 
+    @Test
+    public void testPriorityAndSupertypes() {
+        boolean old = PipeEventBus.useGeneratedInvokers;
+        try {
+            for (boolean generated : new boolean[] { true, false }) {
+                PipeEventBus.useGeneratedInvokers = generated;
+                PipeEventBus bus = new PipeEventBus();
+                bus.registerHandler(new Base());
+
+                PipeEventItem.ModifySpeed event = new PipeEventItem.ModifySpeed(null, null, null, 1);
+                bus.fireEvent(event);
+                Assert.assertEquals(2, event.targetSpeed, 0.00001);
+
+                // Registering after the event has been fired must still be seen by the next event
+                bus.registerHandler(new Late());
+
+                event = new PipeEventItem.ModifySpeed(null, null, null, 1);
+                bus.fireEvent(event);
+                Assert.assertEquals(4, event.targetSpeed, 0.00001);
+            }
+        } finally {
+            PipeEventBus.useGeneratedInvokers = old;
+        }
+    }
+
     public static class Base {
         @PipeEventHandler
         public void modifySpeed2(PipeEventItem.ModifySpeed event) {
@@ -72,4 +98,13 @@ public class PipeEventBusTester {
             event.targetSpeed = 3;
         }
     }
+
+    public static class Late {
+        @PipeEventHandler(priority = PipeEventPriority.LAST)
+        public void modifyItemEvent(PipeEventItem event) {
+            if (event instanceof PipeEventItem.ModifySpeed) {
+                ((PipeEventItem.ModifySpeed) event).targetSpeed *= 2;
+            }
+        }
+    }
 }
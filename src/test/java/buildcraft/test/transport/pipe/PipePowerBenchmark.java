@@ -0,0 +1,312 @@
+package buildcraft.test.transport.pipe;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import buildcraft.api.mj.MjAPI;
+
+import buildcraft.transport.BCTransportConfig.PowerLossMode;
+import buildcraft.transport.pipe.flow.PowerGraph;
+
+/** Compares the CPU cost of a tick of an engine farm feeding a line of power pipes into some machines, for the old
+ * per-pipe stepping in {@link buildcraft.transport.pipe.flow.PipeFlowPower} and for {@link PowerGraph}. As neither
+ * can run without a world the old stepping is a copy of its logic ({@link LegacyModel}), in the same way as
+ * {@link TravellingItemMemoryTester} copies the old item layout. {@link #main(String[])} also prints the number of
+ * ticks that each takes to reach a steady state, which {@link PipePowerTester} checks. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PipePowerBenchmark {
+    static final int ENGINES = 16;
+    static final int MACHINES = 8;
+    static final long ENGINE_OUTPUT = 2 * MjAPI.MJ;
+    static final long MACHINE_REQUEST = 3 * MjAPI.MJ;
+    static final long MAX_POWER = 128 * MjAPI.MJ;
+
+    @Param({ "legacy", "network" })
+    public String mode;
+
+    @Param({ "64", "512" })
+    public int lineLength;
+
+    private Model model;
+
+    public static void main(String[] args) throws RunnerException {
+        for (int lineLength : new int[] { 64, 512 }) {
+            int legacy = ticksToSteadyState(new LegacyModel(lineLength), lineLength);
+            int network = ticksToSteadyState(new NetworkModel(lineLength), lineLength);
+            System.out.println("Ticks to steady state (" + lineLength + " pipes): legacy = " + legacy
+                + ", network = " + network);
+        }
+        new Runner(new OptionsBuilder().include(PipePowerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /** @return The number of ticks until the machines receive 99% of the power that they can, or -1 if they don't
+     *         within 20 ticks per pipe. */
+    static int ticksToSteadyState(Model model, int lineLength) {
+        long target = Math.min(ENGINES * ENGINE_OUTPUT, MACHINES * MACHINE_REQUEST);
+        int limit = lineLength * 20;
+        for (int tick = 1; tick <= limit; tick++) {
+            if (model.tick() * 100 >= target * 99) {
+                return tick;
+            }
+        }
+        return -1;
+    }
+
+    @Setup
+    public void setup() {
+        model = "legacy".equals(mode) ? new LegacyModel(lineLength) : new NetworkModel(lineLength);
+        // Only measure the steady state
+        for (int i = 0; i < lineLength * 4; i++) {
+            model.tick();
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        return model.tick();
+    }
+
+    /** A line of pipes: the first {@link #ENGINES} each have an engine, and the last {@link #MACHINES} each have a
+     * machine. */
+    abstract static class Model {
+        final int nodes;
+        final long[] machineReceived = new long[MACHINES];
+
+        Model(int lineLength) {
+            nodes = ENGINES + lineLength + MACHINES;
+        }
+
+        boolean hasEngine(int node) {
+            return node < ENGINES;
+        }
+
+        int machineAt(int node) {
+            int m = node - (nodes - MACHINES);
+            return m >= 0 ? m : -1;
+        }
+
+        /** @return The power that machines received. */
+        abstract long tick();
+
+        long receiveIntoMachine(int machine, long power) {
+            long accepted = Math.min(power, MACHINE_REQUEST - machineReceived[machine]);
+            machineReceived[machine] += accepted;
+            return power - accepted;
+        }
+
+        long collectDelivered() {
+            long total = 0;
+            for (int m = 0; m < MACHINES; m++) {
+                total += machineReceived[m];
+                machineReceived[m] = 0;
+            }
+            return total;
+        }
+    }
+
+    /** A copy of the logic in PipeFlowPower.onTick before {@link PowerGraph} was added. Each pipe has 3 sections:
+     * towards the previous pipe, towards the next pipe and towards its tile (engine or machine). */
+    static final class LegacyModel extends Model {
+        static final int PREV = 0, NEXT = 1, TILE = 2;
+
+        final long[][] powerQuery, nextPowerQuery, internalPower, internalNextPower;
+        final long[] currentTime;
+        long now = 0;
+
+        LegacyModel(int lineLength) {
+            super(lineLength);
+            powerQuery = new long[nodes][3];
+            nextPowerQuery = new long[nodes][3];
+            internalPower = new long[nodes][3];
+            internalNextPower = new long[nodes][3];
+            currentTime = new long[nodes];
+        }
+
+        boolean isConnected(int node, int section) {
+            switch (section) {
+                case PREV:
+                    return node > 0;
+                case NEXT:
+                    return node < nodes - 1;
+                default:
+                    return hasEngine(node) || machineAt(node) != -1;
+            }
+        }
+
+        void step(int node) {
+            if (currentTime[node] != now) {
+                currentTime[node] = now;
+                for (int s = 0; s < 3; s++) {
+                    powerQuery[node][s] = nextPowerQuery[node][s];
+                    nextPowerQuery[node][s] = 0;
+                    long next = internalPower[node][s];
+                    internalPower[node][s] = internalNextPower[node][s];
+                    internalNextPower[node][s] = next;
+                }
+            }
+        }
+
+        void requestPower(int node, int section, long amount) {
+            step(node);
+            nextPowerQuery[node][section] += amount;
+        }
+
+        @Override
+        long tick() {
+            now++;
+            // Engines
+            for (int n = 0; n < ENGINES; n++) {
+                long req = powerQuery[n][PREV] + powerQuery[n][NEXT];
+                if (req > 0) {
+                    step(n);
+                    internalNextPower[n][TILE] += Math.min(req, ENGINE_OUTPUT);
+                }
+            }
+            for (int n = 0; n < nodes; n++) {
+                tickPipe(n);
+            }
+            return collectDelivered();
+        }
+
+        private void tickPipe(int n) {
+            step(n);
+            for (int s = 0; s < 3; s++) {
+                if (internalPower[n][s] <= 0) {
+                    continue;
+                }
+                long totalPowerQuery = 0;
+                for (int s2 = 0; s2 < 3; s2++) {
+                    if (s != s2) {
+                        totalPowerQuery += powerQuery[n][s2];
+                    }
+                }
+                if (totalPowerQuery <= 0) {
+                    continue;
+                }
+                long unusedPowerQuery = totalPowerQuery;
+                for (int s2 = 0; s2 < 3; s2++) {
+                    if (s == s2 || powerQuery[n][s2] <= 0) {
+                        continue;
+                    }
+                    long watts = Math.min(internalPower[n][s] * powerQuery[n][s2] / unusedPowerQuery,
+                        internalPower[n][s]);
+                    unusedPowerQuery -= powerQuery[n][s2];
+                    long leftover = watts;
+                    if (s2 == TILE) {
+                        int machine = machineAt(n);
+                        if (machine != -1) {
+                            leftover = receiveIntoMachine(machine, watts);
+                        }
+                    } else {
+                        int other = s2 == PREV ? n - 1 : n + 1;
+                        internalNextPower[other][s2 == PREV ? NEXT : PREV] += watts;
+                        leftover = 0;
+                    }
+                    internalPower[n][s] -= watts - leftover;
+                }
+            }
+
+            int machine = machineAt(n);
+            if (machine != -1) {
+                requestPower(n, TILE, MACHINE_REQUEST);
+            }
+
+            for (int s = PREV; s <= NEXT; s++) {
+                if (!isConnected(n, s)) {
+                    continue;
+                }
+                long query = 0;
+                for (int s2 = 0; s2 < 3; s2++) {
+                    if (s != s2) {
+                        query += powerQuery[n][s2];
+                    }
+                }
+                if (query > 0) {
+                    int other = s == PREV ? n - 1 : n + 1;
+                    requestPower(other, s == PREV ? NEXT : PREV, query);
+                }
+            }
+        }
+    }
+
+    /** The same line as {@link LegacyModel}, moved by a {@link PowerGraph} in the same way as
+     * {@link buildcraft.transport.pipe.flow.PowerNetworkSolver}. */
+    static final class NetworkModel extends Model {
+        final PowerGraph graph;
+        final long[] stored;
+        final boolean[] source;
+        final int[] sinkNodes = new int[MACHINES];
+        final long[] requested = new long[MACHINES], sent = new long[MACHINES], delivered = new long[MACHINES];
+        long perEngineRequest = 0;
+
+        NetworkModel(int lineLength) {
+            super(lineLength);
+            int[][] neighbours = new int[nodes][];
+            for (int n = 0; n < nodes; n++) {
+                if (n == 0) {
+                    neighbours[n] = new int[] { 1 };
+                } else if (n == nodes - 1) {
+                    neighbours[n] = new int[] { n - 1 };
+                } else {
+                    neighbours[n] = new int[] { n - 1, n + 1 };
+                }
+            }
+            graph = new PowerGraph(neighbours);
+            stored = new long[nodes];
+            source = new boolean[nodes];
+            for (int n = 0; n < nodes; n++) {
+                graph.maxPower[n] = MAX_POWER;
+                graph.powerResistance[n] = MjAPI.MJ / 100;
+                graph.powerLoss[n] = MAX_POWER / 100;
+                source[n] = hasEngine(n);
+                int machine = machineAt(n);
+                if (machine != -1) {
+                    sinkNodes[machine] = n;
+                }
+            }
+        }
+
+        @Override
+        long tick() {
+            for (int n = 0; n < ENGINES; n++) {
+                stored[n] += Math.min(perEngineRequest, ENGINE_OUTPUT);
+            }
+            for (int m = 0; m < MACHINES; m++) {
+                requested[m] = MACHINE_REQUEST - machineReceived[m];
+            }
+            long totalDemand =
+                graph.solve(stored, source, MACHINES, sinkNodes, requested, PowerLossMode.LOSSLESS, sent, delivered);
+            long used = 0;
+            for (int m = 0; m < MACHINES; m++) {
+                long leftover = receiveIntoMachine(m, delivered[m]);
+                used += delivered[m] == 0 ? 0 : sent[m] * (delivered[m] - leftover) / delivered[m];
+            }
+            PowerGraph.drain(stored, used);
+            long left = 0;
+            for (long s : stored) {
+                left += s;
+            }
+            perEngineRequest = (Math.max(0, totalDemand - left) + ENGINES - 1) / ENGINES;
+            return collectDelivered();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package buildcraft.test.transport.pipe;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import buildcraft.api.mj.MjAPI;
+
+import buildcraft.transport.BCTransportConfig.PowerLossMode;
+import buildcraft.transport.pipe.flow.PowerGraph;
+
+import buildcraft.test.transport.pipe.PipePowerBenchmark.LegacyModel;
+import buildcraft.test.transport.pipe.PipePowerBenchmark.NetworkModel;
+
+public class PipePowerTester {
+    private static final int LINE_LENGTH = 64;
+
+    @Test
+    public void testTicksToSteadyState() {
+        int legacy = PipePowerBenchmark.ticksToSteadyState(new LegacyModel(LINE_LENGTH), LINE_LENGTH);
+        int network = PipePowerBenchmark.ticksToSteadyState(new NetworkModel(LINE_LENGTH), LINE_LENGTH);
+        String message = "legacy = " + legacy + ", network = " + network;
+        Assert.assertTrue("The network solver should reach a steady state within 2 ticks (" + message + ")",
+            network > 0 && network <= 2);
+        Assert.assertTrue("The network solver should be faster than the legacy one (" + message + ")",
+            legacy == -1 || network < legacy);
+    }
+
+    @Test
+    public void testMaxPowerIsRespected() {
+        // A source (0) feeding two receivers (on 2 and 3) through a shared pipe (1)
+        PowerGraph graph = new PowerGraph(new int[][] { { 1 }, { 0, 2, 3 }, { 1 }, { 1 } });
+        for (int n = 0; n < 4; n++) {
+            graph.maxPower[n] = 10 * MjAPI.MJ;
+        }
+        long[] stored = { 100 * MjAPI.MJ, 0, 0, 0 };
+        boolean[] source = { true, false, false, false };
+        long[] sent = new long[2], delivered = new long[2];
+        graph.solve(stored, source, 2, new int[] { 2, 3 }, new long[] { 8 * MjAPI.MJ, 8 * MjAPI.MJ },
+            PowerLossMode.LOSSLESS, sent, delivered);
+        Assert.assertEquals(10 * MjAPI.MJ, delivered[0] + delivered[1], MjAPI.MJ / 1000);
+        Assert.assertTrue(graph.throughput[1] <= 10 * MjAPI.MJ);
+    }
+
+    @Test
+    public void testLosses() {
+        PowerGraph graph = new PowerGraph(new int[][] { { 1 }, { 0, 2 }, { 1 } });
+        for (int n = 0; n < 3; n++) {
+            graph.maxPower[n] = 100 * MjAPI.MJ;
+            graph.powerResistance[n] = MjAPI.MJ / 10;
+            graph.powerLoss[n] = MjAPI.MJ;
+        }
+        long[] stored = { 100 * MjAPI.MJ, 0, 0 };
+        boolean[] source = { true, false, false };
+        long[] sent = new long[1], delivered = new long[1];
+
+        graph.solve(stored, source, 1, new int[] { 2 }, new long[] { 10 * MjAPI.MJ }, PowerLossMode.ABSOLUTE, sent,
+            delivered);
+        Assert.assertEquals(10 * MjAPI.MJ, delivered[0]);
+        Assert.assertEquals(13 * MjAPI.MJ, sent[0]);
+
+        graph.solve(stored, source, 1, new int[] { 2 }, new long[] { 10 * MjAPI.MJ }, PowerLossMode.PERCENTAGE, sent,
+            delivered);
+        Assert.assertEquals(10 * MjAPI.MJ, delivered[0], 10);
+        Assert.assertEquals(10 * MjAPI.MJ / (0.9 * 0.9 * 0.9), sent[0], 10);
+    }
+
+    @Test
+    public void testDrain() {
+        long[] stored = { 30, 0, 70 };
+        PowerGraph.drain(stored, 50);
+        Assert.assertEquals(50, stored[0] + stored[1] + stored[2]);
+        Assert.assertEquals(15, stored[0]);
+    }
+}
@@ -0,0 +1,95 @@
+package buildcraft.test.transport.pipe;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.EnumDyeColor;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumFacing;
+
+import buildcraft.transport.pipe.flow.TravellingItem;
+
+import buildcraft.test.VanillaSetupBaseTester;
+
+public class TravellingItemMemoryTester extends VanillaSetupBaseTester {
+    private static final int COUNT = 10_000;
+
+    /** A copy of the field layout that {@link TravellingItem} used before it was packed. */
+    @SuppressWarnings("unused")
+    static class UnpackedTravellingItem {
+        final Supplier<ItemStack> clientItemLink = () -> null;
+        int stackSize;
+        EnumDyeColor colour;
+        ItemStack stack;
+        int id = 0;
+        boolean toCenter;
+        double speed = 0.05;
+        long tickStarted, tickFinished;
+        int timeToDest;
+        EnumFacing side;
+        EnumSet<EnumFacing> tried = EnumSet.noneOf(EnumFacing.class);
+        boolean isPhantom = false;
+    }
+
+    private static void assertPackedIsSmaller(long packedSize, long unpackedSize, int maxPercent) {
+        Assert.assertTrue("Packed items should be at most " + maxPercent + "% of the unpacked size (" + packedSize
+            + " vs " + unpackedSize + " bytes per item)", packedSize * 100 <= unpackedSize * maxPercent);
+    }
+
+    @Test
+    public void testPackedIsSmaller() {
+        List<Object> unpacked = new ArrayList<>(COUNT);
+        List<Object> packed = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            unpacked.add(new UnpackedTravellingItem());
+            packed.add(new TravellingItem((ItemStack) null));
+        }
+        // Shared objects (enums, the lists themselves) are amortised over every item
+        long unpackedSize = GraphLayout.parseInstance(unpacked).totalSize() / COUNT;
+        long packedSize = GraphLayout.parseInstance(packed).totalSize() / COUNT;
+        assertPackedIsSmaller(packedSize, unpackedSize, 60);
+    }
+
+    @Test
+    public void testPackedIsSmallerWithStacks() throws ReflectiveOperationException {
+        // Packed items are also indexed for merging, as they would be in a pipe on the server
+        Class<?> indexClass = Class.forName("buildcraft.transport.pipe.flow.ItemMergeIndex");
+        Constructor<?> constructor = indexClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Object index = constructor.newInstance();
+        Method add = indexClass.getDeclaredMethod("add", TravellingItem.class);
+        add.setAccessible(true);
+
+        List<ItemStack> stacks = new ArrayList<>(COUNT);
+        List<Object> unpacked = new ArrayList<>(COUNT);
+        List<Object> packed = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            ItemStack stack = new ItemStack(Items.APPLE, 3);
+            stack.setStackDisplayName("Apple " + (i % 10));
+            stacks.add(stack);
+
+            UnpackedTravellingItem unpackedItem = new UnpackedTravellingItem();
+            unpackedItem.stack = stack;
+            unpacked.add(unpackedItem);
+
+            TravellingItem packedItem = new TravellingItem(stack);
+            add.invoke(index, packedItem);
+            packed.add(packedItem);
+        }
+        // The stacks are the same in both, so only count what each item adds on top of its stack
+        long stacksSize = GraphLayout.parseInstance(stacks).totalSize();
+        long unpackedSize = (GraphLayout.parseInstance(unpacked).totalSize() - stacksSize) / COUNT;
+        long packedSize = (GraphLayout.parseInstance(packed, index).totalSize() - stacksSize) / COUNT;
+        // The merge index adds a list slot (and some spare capacity) per item
+        assertPackedIsSmaller(packedSize, unpackedSize, 65);
+    }
+}